@@ -0,0 +1,204 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ApkStore {
+    private static final String STORE_DIR = "cache" + File.separator + "apks";
+    private static final String LEGACY_DIR = "cache" + File.separator + "versions";
+    private static final String INDEX_FILE = "index.json";
+    private static final String APK_SUFFIX = ".apk";
+    private static final Gson GSON = new Gson();
+    private static final Map<String, ApkStore> STORES = new ConcurrentHashMap<>();
+
+    private final File directory;
+    private final File indexFile;
+    private final Map<String, Entry> index;
+    private boolean legacyMigrated;
+
+    private static class Entry {
+        String sha256;
+        long size;
+
+        Entry(String sha256, long size) {
+            this.sha256 = sha256;
+            this.size = size;
+        }
+    }
+
+    private ApkStore(File directory) {
+        this.directory = directory;
+        this.indexFile = new File(directory, INDEX_FILE);
+        this.index = loadIndex(indexFile);
+    }
+
+    public static ApkStore forActiveInstance() {
+        File directory = new File(InstanceManager.getInstance().resolvePath(STORE_DIR));
+        return STORES.computeIfAbsent(directory.getAbsolutePath(), key -> new ApkStore(directory));
+    }
+
+    public void migrateLegacyAsync() {
+        File legacyDir = new File(InstanceManager.getInstance().resolvePath(LEGACY_DIR));
+        synchronized (this) {
+            if (legacyMigrated) {
+                return;
+            }
+            legacyMigrated = true;
+        }
+        Thread migrationThread = new Thread(() -> migrateLegacy(legacyDir), "apk-migration");
+        migrationThread.setDaemon(true);
+        migrationThread.setPriority(Thread.MIN_PRIORITY);
+        migrationThread.start();
+    }
+
+    public synchronized boolean contains(Version version) {
+        return lookup(version) != null;
+    }
+
+    public synchronized File find(Version version) {
+        Entry entry = lookup(version);
+        return entry != null ? blobFile(entry.sha256) : null;
+    }
+
+    private Entry lookup(Version version) {
+        Entry entry = index.get(version.getName());
+        if (entry == null) {
+            return null;
+        }
+        if (version.getSha256() != null && !version.getSha256().equalsIgnoreCase(entry.sha256)) {
+            return null;
+        }
+        if (version.getSize() > 0 && version.getSize() != entry.size) {
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void forget(String versionName) {
+        if (index.remove(versionName) != null) {
+            saveIndex();
+        }
+    }
+
+    public synchronized void forgetBlob(String sha256) {
+        if (blobFile(sha256).exists()) {
+            return;
+        }
+        if (index.values().removeIf(entry -> entry.sha256.equals(sha256))) {
+            saveIndex();
+        }
+    }
+
+    public synchronized File add(String versionName, File file, String sha256) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("versionManager.error.createCacheDirFailed:" + directory.getAbsolutePath());
+        }
+        String hash = sha256.toLowerCase();
+        long size = file.length();
+        File blob = blobFile(hash);
+        if (blob.isFile() && blob.length() == size) {
+            Files.deleteIfExists(file.toPath());
+        } else {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(file.toPath(), blob.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(file.toPath(), blob.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        index.put(versionName, new Entry(hash, size));
+        saveIndex();
+        return blob;
+    }
+
+    public static void verify(Version version, File file, String sha256) throws IOException {
+        boolean sizeMismatch = version.getSize() > 0 && file.length() != version.getSize();
+        boolean hashMismatch = version.getSha256() != null && !version.getSha256().equalsIgnoreCase(sha256);
+        if (sizeMismatch || hashMismatch) {
+            Files.deleteIfExists(file.toPath());
+            throw new IOException("versionManager.error.checksumMismatch:" + version.getName());
+        }
+    }
+
+    public static String hash(File file) throws IOException {
+        MessageDigest digest = ComponentsManager.newSha256();
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[64 * 1024];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+        return ComponentsManager.toHex(digest.digest());
+    }
+
+    private File blobFile(String sha256) {
+        return new File(directory, sha256 + APK_SUFFIX);
+    }
+
+    private void migrateLegacy(File legacyDir) {
+        File[] legacyFiles = legacyDir.listFiles((dir, name) -> name.endsWith(APK_SUFFIX));
+        if (legacyFiles == null) {
+            return;
+        }
+        for (File legacyFile : legacyFiles) {
+            if (legacyFile.length() == 0 || SegmentedDownloader.isIncomplete(legacyFile)) {
+                continue;
+            }
+            String versionName = legacyFile.getName().substring(0, legacyFile.getName().length() - APK_SUFFIX.length());
+            try {
+                add(versionName, legacyFile, hash(legacyFile));
+            } catch (IOException e) {
+                System.err.println("Failed to migrate cached APK " + legacyFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Entry> loadIndex(File indexFile) {
+        if (indexFile.isFile()) {
+            try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                Type mapType = new TypeToken<HashMap<String, Entry>>(){}.getType();
+                Map<String, Entry> loaded = GSON.fromJson(reader, mapType);
+                if (loaded != null) {
+                    return loaded;
+                }
+            } catch (IOException | JsonParseException e) {
+                System.err.println("Failed to read APK store index: " + e.getMessage());
+            }
+        }
+        return new HashMap<>();
+    }
+
+    private void saveIndex() {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(index, writer);
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
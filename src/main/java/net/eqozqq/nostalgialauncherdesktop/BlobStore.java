@@ -0,0 +1,127 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class BlobStore {
+    public static final String DIR_NAME = ".blobs";
+    private static final String LINK_SUFFIX = ".link";
+
+    private final File blobsDir;
+    private final File versionsDir;
+
+    public BlobStore(File versionsDir) {
+        this.versionsDir = versionsDir;
+        this.blobsDir = new File(versionsDir, DIR_NAME);
+    }
+
+    public boolean dedupe(File versionDir, VersionManifest manifest) throws IOException {
+        Path versionPath = versionDir.toPath();
+        for (Map.Entry<String, VersionManifest.Entry> file : manifest.getFiles().entrySet()) {
+            Path path = versionPath.resolve(file.getKey());
+            VersionManifest.Entry entry = file.getValue();
+            String sha256 = entry.getSha256() != null ? entry.getSha256() : ApkStore.hash(path.toFile());
+            Path blob = blobPath(sha256);
+            try {
+                if (Files.isRegularFile(blob) && Files.size(blob) == entry.getSize()) {
+                    if (!Files.isSameFile(blob, path)) {
+                        replaceWithLink(path, blob);
+                    }
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.deleteIfExists(blob);
+                    Files.createLink(blob, path);
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                System.err.println("Hard links unavailable, keeping full copies: " + e.getMessage());
+                return false;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            manifest.put(file.getKey(), new VersionManifest.Entry(attrs.size(), attrs.lastModifiedTime().toMillis(),
+                    entry.getCrc(), sha256));
+        }
+        return true;
+    }
+
+    public int collectGarbage() throws IOException {
+        if (!blobsDir.isDirectory()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>();
+        File[] versionDirs = versionsDir.listFiles(file -> file.isDirectory() && !file.getName().startsWith("."));
+        if (versionDirs != null) {
+            for (File versionDir : versionDirs) {
+                VersionManifest manifest = VersionManifest.load(new File(versionDir, VersionManifest.FILE_NAME));
+                if (manifest == null) {
+                    continue;
+                }
+                for (VersionManifest.Entry entry : manifest.getFiles().values()) {
+                    if (entry.getSha256() != null) {
+                        referenced.add(entry.getSha256());
+                    }
+                }
+            }
+        }
+
+        int[] removed = new int[1];
+        Files.walkFileTree(blobsDir.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                    removed[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (!dir.equals(blobsDir.toPath())) {
+                    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                        if (!entries.iterator().hasNext()) {
+                            Files.delete(dir);
+                        }
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return removed[0];
+    }
+
+    public void evict(String sha256, Path file) throws IOException {
+        Path blob = blobPath(sha256);
+        if (Files.exists(blob) && Files.isSameFile(blob, file)) {
+            Files.delete(blob);
+        }
+    }
+
+    private Path blobPath(String sha256) {
+        return blobsDir.toPath().resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static void replaceWithLink(Path path, Path blob) throws IOException {
+        Path link = path.resolveSibling(path.getFileName() + LINK_SUFFIX);
+        Files.deleteIfExists(link);
+        Files.createLink(link, blob);
+        try {
+            Files.move(link, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(link, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(link);
+            throw e;
+        }
+    }
+}
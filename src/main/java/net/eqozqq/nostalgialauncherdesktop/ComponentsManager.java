@@ -0,0 +1,281 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ComponentsManager {
+    private static final String COMPONENTS_CACHE_DIR = "cache" + File.separator + "components";
+    private static final String STAGING_DIR = ".components_staging";
+    private static final Gson GSON = new Gson();
+
+    private static class Metadata {
+        String url;
+        String etag;
+        String lastModified;
+        String sha256;
+        String extractedSha256;
+        List<String> files = new ArrayList<>();
+    }
+
+    public void ensureComponents(List<String> urls, File gameDir, String executableName, ProgressCallback callback)
+            throws IOException {
+        String url = urls.get(0);
+        File cacheDir = new File(InstanceManager.getInstance().resolvePath(COMPONENTS_CACHE_DIR));
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("versionManager.error.createCacheDirFailed:" + cacheDir.getAbsolutePath());
+        }
+        String archiveName = url.substring(url.lastIndexOf('/') + 1);
+        File archive = new File(cacheDir, archiveName);
+        File metadataFile = new File(cacheDir, archiveName + ".json");
+        File executable = new File(gameDir, executableName);
+
+        Metadata metadata = loadMetadata(metadataFile, url);
+        List<String> installedFiles = metadata != null && metadata.files != null
+                ? metadata.files : Collections.emptyList();
+        if (metadata != null && !archive.isFile()) {
+            metadata = null;
+        }
+
+        Metadata fetched;
+        try {
+            fetched = fetchFromMirrors(urls, archive, metadata, callback);
+        } catch (IOException e) {
+            if (metadata == null) {
+                throw e;
+            }
+            System.err.println("Failed to revalidate launcher components, using cached copy: " + e.getMessage());
+            fetched = metadata;
+        }
+
+        boolean current = executable.isFile() && fetched.sha256 != null
+                && fetched.sha256.equals(fetched.extractedSha256);
+        if (!current) {
+            // Until every file is in place the install counts as unfinished and is redone on the next start
+            fetched.extractedSha256 = null;
+            fetched.files = installedFiles;
+            saveMetadata(metadataFile, fetched);
+            fetched.files = installArchive(archive, gameDir, executableName, installedFiles);
+            fetched.extractedSha256 = fetched.sha256;
+        }
+        saveMetadata(metadataFile, fetched);
+    }
+
+    private Metadata fetchFromMirrors(List<String> urls, File archive, Metadata cached, ProgressCallback callback)
+            throws IOException {
+        MirrorHealth health = MirrorHealth.forActiveInstance();
+        IOException lastError = null;
+        for (String mirror : health.rank(urls)) {
+            long started = System.nanoTime();
+            try {
+                Metadata metadata = fetch(mirror, archive, cached, callback);
+                metadata.url = urls.get(0);
+                if (metadata == cached) {
+                    health.recordProbe(mirror, (System.nanoTime() - started) / 1_000_000);
+                } else {
+                    health.recordTransfer(mirror, archive.length(), System.nanoTime() - started);
+                }
+                HttpManager.getInstance().recordSuccess();
+                return metadata;
+            } catch (HttpManager.OfflineException e) {
+                throw e;
+            } catch (IOException e) {
+                health.recordFailure(mirror);
+                lastError = e;
+            }
+        }
+        if (lastError == null) {
+            throw new IOException("versionManager.error.missingUrl:" + archive.getName());
+        }
+        HttpManager.getInstance().recordFailure(lastError);
+        throw lastError;
+    }
+
+    private Metadata fetch(String url, File archive, Metadata cached, ProgressCallback callback) throws IOException {
+        HttpGet request = new HttpGet(url);
+        if (cached != null) {
+            if (cached.etag != null) {
+                request.setHeader("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                request.setHeader("If-Modified-Since", cached.lastModified);
+            }
+        }
+        try (CloseableHttpResponse response = HttpManager.getInstance().executeUncounted(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                if (callback != null) {
+                    callback.onProgress(1.0);
+                }
+                return cached;
+            }
+            HttpEntity entity = response.getEntity();
+            if (status != HttpStatus.SC_OK || entity == null) {
+                throw new IOException("versionManager.error.downloadFailed:" + url + " (HTTP " + status + ")");
+            }
+
+            File tempFile = new File(archive.getPath() + ".download");
+            String sha256 = downloadHashed(entity, tempFile, callback);
+
+            Metadata metadata = new Metadata();
+            metadata.url = url;
+            metadata.etag = headerValue(response.getFirstHeader("ETag"));
+            metadata.lastModified = headerValue(response.getFirstHeader("Last-Modified"));
+            metadata.sha256 = sha256;
+            if (cached != null && sha256.equals(cached.sha256)) {
+                metadata.extractedSha256 = cached.extractedSha256;
+                metadata.files = cached.files;
+                Files.deleteIfExists(tempFile.toPath());
+            } else {
+                moveReplacing(tempFile.toPath(), archive.toPath());
+            }
+            return metadata;
+        }
+    }
+
+    private String downloadHashed(HttpEntity entity, File tempFile, ProgressCallback callback) throws IOException {
+        MessageDigest digest = newSha256();
+        long totalSize = entity.getContentLength();
+        try (InputStream inputStream = entity.getContent();
+             OutputStream outputStream = new FileOutputStream(tempFile)) {
+            byte[] buffer = new byte[64 * 1024];
+            int bytesRead;
+            long totalBytesRead = 0;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, bytesRead);
+                digest.update(buffer, 0, bytesRead);
+                totalBytesRead += bytesRead;
+                if (callback != null && totalSize > 0) {
+                    callback.onProgress((double) totalBytesRead / totalSize);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        return toHex(digest.digest());
+    }
+
+    private List<String> installArchive(File archive, File gameDir, String executableName, List<String> previousFiles)
+            throws IOException {
+        File stagingDir = new File(gameDir, STAGING_DIR);
+        FileUtils.deleteDirectory(stagingDir);
+        if (!stagingDir.mkdirs()) {
+            throw new IOException("versionManager.error.createTargetDirFailed:" + stagingDir.getAbsolutePath());
+        }
+        try {
+            new ParallelZipExtractor().extract(archive, stagingDir, null, null);
+            File stagedExecutable = new File(stagingDir, executableName);
+            if (stagedExecutable.isFile()) {
+                stagedExecutable.setExecutable(true);
+            }
+
+            File executable = new File(gameDir, executableName);
+            if (executable.isDirectory()) {
+                FileUtils.deleteDirectory(executable);
+            }
+
+            Path stagingPath = stagingDir.toPath();
+            Path gamePath = gameDir.toPath();
+            List<String> files = new ArrayList<>();
+            Files.walkFileTree(stagingPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Path relative = stagingPath.relativize(file);
+                    Path target = gamePath.resolve(relative);
+                    Files.createDirectories(target.getParent());
+                    moveReplacing(file, target);
+                    files.add(relative.toString().replace(File.separatorChar, '/'));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            for (String previous : previousFiles) {
+                Path stale = gamePath.resolve(previous).normalize();
+                if (!files.contains(previous) && stale.startsWith(gamePath) && Files.isRegularFile(stale)) {
+                    Files.delete(stale);
+                }
+            }
+            return files;
+        } finally {
+            FileUtils.deleteQuietly(stagingDir);
+        }
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Metadata loadMetadata(File metadataFile, String url) {
+        if (!metadataFile.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            Metadata metadata = GSON.fromJson(reader, Metadata.class);
+            if (metadata == null || !url.equals(metadata.url)) {
+                return null;
+            }
+            return metadata;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static void saveMetadata(File metadataFile, Metadata metadata) {
+        try (Writer writer = Files.newBufferedWriter(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(metadata, writer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String headerValue(Header header) {
+        return header != null ? header.getValue() : null;
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
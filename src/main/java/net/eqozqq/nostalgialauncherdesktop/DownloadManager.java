@@ -0,0 +1,628 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DownloadManager {
+    public static final int PRIORITY_BACKGROUND = 0;
+    public static final int PRIORITY_NORMAL = 50;
+    public static final int PRIORITY_INTERACTIVE = 100;
+
+    private static final String QUEUE_FILE = "cache" + File.separator + "download_queue.json";
+    private static final long SPEED_WINDOW_NANOS = 500_000_000L;
+    private static final Gson GSON = new Gson();
+    private static final List<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final RateLimiter BANDWIDTH = new RateLimiter(0);
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "download-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile int maxConcurrent = 2;
+    private static volatile int maxPerHost = 2;
+    private static DownloadManager current;
+
+    private final File queueFile;
+    private final VersionManager versionManager = new VersionManager();
+    private final List<Job> jobs = new ArrayList<>();
+    private final Set<String> activeVersions = new HashSet<>();
+    private boolean paused;
+    private boolean suspended;
+    private boolean restored;
+
+    public enum State {
+        QUEUED, RUNNING, PAUSED, FAILED, DONE
+    }
+
+    public static class Job {
+        private String id;
+        private Version version;
+        private int priority;
+        private boolean install;
+        private boolean stream;
+        private List<String> abis;
+        private long bytesPerSecond;
+        private State state;
+        private String error;
+        private long createdAt;
+
+        private transient Future<?> future;
+        private transient CompletableFuture<File> completion;
+        private transient List<ProgressCallback> callbacks;
+        private transient JobMeter meter;
+        private transient boolean requeue;
+        private transient boolean cancelled;
+        private transient volatile double progress;
+        private transient volatile double speed;
+        private transient double startProgress = -1;
+        private transient long sessionBytes;
+        private transient long windowBytes;
+        private transient long windowStart;
+
+        public String getId() {
+            return id;
+        }
+
+        public Version getVersion() {
+            return version;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public double getProgress() {
+            return progress;
+        }
+
+        public double getSpeed() {
+            return state == State.RUNNING ? speed : 0;
+        }
+
+        public synchronized long getEtaSeconds() {
+            double currentSpeed = getSpeed();
+            if (currentSpeed <= 0) {
+                return -1;
+            }
+            double total = version.getSize();
+            if (total <= 0 && startProgress >= 0 && progress > startProgress) {
+                total = sessionBytes / (progress - startProgress);
+            }
+            if (total <= 0) {
+                return -1;
+            }
+            return (long) ((1 - progress) * total / currentSpeed);
+        }
+
+        private synchronized CompletableFuture<File> completion() {
+            if (completion == null) {
+                completion = new CompletableFuture<>();
+            }
+            return completion;
+        }
+
+        private synchronized List<ProgressCallback> callbacks() {
+            if (callbacks == null) {
+                callbacks = new CopyOnWriteArrayList<>();
+            }
+            return callbacks;
+        }
+
+        private Set<String> requiredAbis() {
+            return abis != null ? new TreeSet<>(abis) : null;
+        }
+
+        private String host() {
+            String url = version.getUrl();
+            try {
+                URI uri = URI.create(url);
+                return uri.getHost() != null ? uri.getHost().toLowerCase() : String.valueOf(uri.getScheme());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return "";
+            }
+        }
+
+        private void onProgress(double value) {
+            synchronized (this) {
+                if (startProgress < 0) {
+                    startProgress = value;
+                }
+            }
+            progress = value;
+            for (ProgressCallback callback : callbacks()) {
+                callback.onProgress(value);
+            }
+        }
+
+        private synchronized void record(int bytes) {
+            long now = System.nanoTime();
+            if (windowStart == 0) {
+                windowStart = now;
+            }
+            sessionBytes += bytes;
+            windowBytes += bytes;
+            long elapsed = now - windowStart;
+            if (elapsed >= SPEED_WINDOW_NANOS) {
+                double instant = windowBytes * 1e9 / elapsed;
+                speed = speed == 0 ? instant : speed * 0.7 + instant * 0.3;
+                windowBytes = 0;
+                windowStart = now;
+            }
+        }
+
+        private synchronized void resetSession() {
+            startProgress = -1;
+            sessionBytes = 0;
+            windowBytes = 0;
+            windowStart = 0;
+            speed = 0;
+        }
+    }
+
+    private static class QueueState {
+        boolean paused;
+        List<Job> jobs;
+    }
+
+    private static class JobMeter extends RateLimiter {
+        private final Job job;
+
+        JobMeter(Job job) {
+            super(job.bytesPerSecond);
+            this.job = job;
+        }
+
+        @Override
+        public void acquire(int bytes) throws InterruptedIOException {
+            super.acquire(bytes);
+            BANDWIDTH.acquire(bytes);
+            job.record(bytes);
+        }
+    }
+
+    private DownloadManager(File queueFile) {
+        this.queueFile = queueFile;
+    }
+
+    public static synchronized DownloadManager forActiveInstance() {
+        File queueFile = new File(InstanceManager.getInstance().resolvePath(QUEUE_FILE)).getAbsoluteFile();
+        if (current == null || !current.queueFile.equals(queueFile)) {
+            if (current != null) {
+                current.suspend();
+            }
+            current = new DownloadManager(queueFile);
+            notifyListeners();
+        }
+        return current;
+    }
+
+    public synchronized void restore() {
+        if (restored) {
+            return;
+        }
+        restored = true;
+        load();
+        dispatch();
+        notifyListeners();
+    }
+
+    public static void configure(int maxConcurrentJobs, int maxJobsPerHost, long bytesPerSecond) {
+        maxConcurrent = Math.max(1, maxConcurrentJobs);
+        maxPerHost = Math.max(1, maxJobsPerHost);
+        BANDWIDTH.setRate(bytesPerSecond);
+        DownloadManager manager = current;
+        if (manager != null) {
+            manager.dispatch();
+        }
+    }
+
+    public static void addListener(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Runnable listener) {
+        LISTENERS.remove(listener);
+    }
+
+    public synchronized List<Job> getJobs() {
+        List<Job> snapshot = new ArrayList<>(jobs);
+        snapshot.sort(jobOrder());
+        return snapshot;
+    }
+
+    public synchronized boolean hasPendingJob(String versionName) {
+        return findPending(versionName) != null;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    public Job enqueue(Version version, int priority) {
+        return enqueue(version, priority, false, null, 0);
+    }
+
+    public Job enqueue(Version version, int priority, boolean install, Set<String> requiredAbis,
+                       long bytesPerSecond) {
+        return enqueue(version, priority, install, requiredAbis, bytesPerSecond, false);
+    }
+
+    public synchronized Job enqueue(Version version, int priority, boolean install, Set<String> requiredAbis,
+                                    long bytesPerSecond, boolean stream) {
+        Job job = findPending(version.getName());
+        if (job != null) {
+            if (priority > job.priority) {
+                job.priority = priority;
+            }
+            if (priority > PRIORITY_BACKGROUND || bytesPerSecond <= 0) {
+                job.bytesPerSecond = 0;
+                if (job.meter != null) {
+                    job.meter.setRate(0);
+                }
+            }
+            if (install && stream) {
+                job.stream = true;
+            }
+            if (install && !job.install) {
+                job.install = true;
+                job.abis = requiredAbis != null ? new ArrayList<>(requiredAbis) : null;
+            } else if (install && job.abis != null) {
+                if (requiredAbis == null) {
+                    job.abis = null;
+                } else {
+                    Set<String> merged = new TreeSet<>(job.abis);
+                    merged.addAll(requiredAbis);
+                    job.abis = new ArrayList<>(merged);
+                }
+            }
+            if (job.state == State.FAILED || (job.state == State.PAUSED && priority >= PRIORITY_INTERACTIVE)) {
+                requeue(job);
+            }
+        } else {
+            job = new Job();
+            job.id = UUID.randomUUID().toString();
+            job.version = version;
+            job.priority = priority;
+            job.install = install;
+            job.stream = install && stream;
+            job.abis = install && requiredAbis != null ? new ArrayList<>(requiredAbis) : null;
+            job.bytesPerSecond = Math.max(0, bytesPerSecond);
+            job.state = State.QUEUED;
+            job.createdAt = System.currentTimeMillis();
+            jobs.add(job);
+        }
+        changed();
+        return job;
+    }
+
+    public File await(Job job, ProgressCallback callback) throws IOException {
+        if (callback != null) {
+            job.callbacks().add(callback);
+        }
+        try {
+            return job.completion().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("versionManager.error.downloadInterrupted:" + job.version.getName());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (callback != null) {
+                job.callbacks().remove(callback);
+            }
+        }
+    }
+
+    public synchronized void pause(Job job) {
+        if (job.state == State.QUEUED) {
+            job.state = State.PAUSED;
+            abortAwaits(job);
+        } else if (job.state == State.RUNNING) {
+            job.state = State.PAUSED;
+            job.future.cancel(true);
+            abortAwaits(job);
+        }
+        changed();
+    }
+
+    public synchronized void resume(Job job) {
+        if (job.state == State.PAUSED || job.state == State.FAILED) {
+            requeue(job);
+        }
+        changed();
+    }
+
+    public synchronized void cancel(Job job) {
+        if (!jobs.remove(job)) {
+            return;
+        }
+        job.cancelled = true;
+        if (job.state == State.RUNNING) {
+            job.future.cancel(true);
+        }
+        job.completion().completeExceptionally(
+                new InterruptedIOException("downloadManager.error.cancelled:" + job.version.getName()));
+        changed();
+    }
+
+    public synchronized void pauseAll() {
+        paused = true;
+        for (Job job : jobs) {
+            // Interactive jobs have a launch waiting on them and are not held by the global pause
+            if (job.state == State.RUNNING && job.priority < PRIORITY_INTERACTIVE) {
+                job.requeue = true;
+                job.future.cancel(true);
+            }
+        }
+        changed();
+    }
+
+    public synchronized void resumeAll() {
+        paused = false;
+        changed();
+    }
+
+    public synchronized void clearFinished() {
+        if (jobs.removeIf(job -> job.state == State.DONE)) {
+            changed();
+        }
+    }
+
+    private void requeue(Job job) {
+        job.state = State.QUEUED;
+        job.error = null;
+        synchronized (job) {
+            if (job.completion != null && job.completion.isDone()) {
+                job.completion = null;
+            }
+        }
+    }
+
+    private void abortAwaits(Job job) {
+        CompletableFuture<File> completion;
+        synchronized (job) {
+            completion = job.completion;
+            job.completion = null;
+        }
+        if (completion != null) {
+            completion.completeExceptionally(
+                    new InterruptedIOException("downloadManager.error.paused:" + job.version.getName()));
+        }
+    }
+
+    private Job findPending(String versionName) {
+        for (Job job : jobs) {
+            if (job.state != State.DONE && job.version.getName().equals(versionName)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void changed() {
+        save();
+        dispatch();
+        notifyListeners();
+    }
+
+    private synchronized void dispatch() {
+        if (suspended) {
+            return;
+        }
+        List<Job> queued = new ArrayList<>();
+        for (Job job : jobs) {
+            if (job.state == State.QUEUED && !activeVersions.contains(job.version.getName())
+                    && (!paused || job.priority >= PRIORITY_INTERACTIVE)) {
+                queued.add(job);
+            }
+        }
+        queued.sort(jobOrder());
+        for (Job job : queued) {
+            String host = job.host();
+            int running = 0;
+            int runningOnHost = 0;
+            boolean preempting = false;
+            for (Job other : jobs) {
+                if (other.state == State.RUNNING) {
+                    running++;
+                    runningOnHost += other.host().equals(host) ? 1 : 0;
+                    preempting |= other.requeue;
+                }
+            }
+            if (running < maxConcurrent && runningOnHost < maxPerHost) {
+                start(job);
+            } else if (job.priority >= PRIORITY_INTERACTIVE && !preempting) {
+                Job victim = findVictim(job, runningOnHost >= maxPerHost ? host : null);
+                if (victim != null) {
+                    victim.requeue = true;
+                    victim.future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private Job findVictim(Job job, String host) {
+        Job victim = null;
+        for (Job other : jobs) {
+            if (other.state != State.RUNNING || other.priority >= job.priority
+                    || (host != null && !other.host().equals(host))) {
+                continue;
+            }
+            if (victim == null || other.priority < victim.priority) {
+                victim = other;
+            }
+        }
+        return victim;
+    }
+
+    private void start(Job job) {
+        job.state = State.RUNNING;
+        job.requeue = false;
+        job.resetSession();
+        job.meter = new JobMeter(job);
+        activeVersions.add(job.version.getName());
+        job.future = EXECUTOR.submit(() -> run(job));
+    }
+
+    private void run(Job job) {
+        File apkFile = null;
+        Exception error = null;
+        boolean extracting = false;
+        try {
+            Version version = job.version;
+            if (job.install && job.stream && !versionManager.isVersionInstalled(version)
+                    && versionManager.canStreamInstall(version)) {
+                apkFile = versionManager.streamInstallVersion(version, job.requiredAbis(), job::onProgress, job.meter);
+            } else {
+                apkFile = versionManager.downloadVersion(version, job::onProgress, job.meter);
+            }
+            if (job.install && !Thread.currentThread().isInterrupted() && !versionManager.isVersionInstalled(version)) {
+                extracting = true;
+                versionManager.extractVersion(version.getName(), apkFile, job.requiredAbis(), null);
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            if (extracting) {
+                try {
+                    versionManager.removeVersion(job.version.getName());
+                } catch (IOException cleanupError) {
+                    cleanupError.printStackTrace();
+                }
+            }
+        }
+        finished(job, apkFile, error);
+    }
+
+    private synchronized void finished(Job job, File apkFile, Exception error) {
+        job.future = null;
+        job.meter = null;
+        activeVersions.remove(job.version.getName());
+        if (job.cancelled) {
+            dispatch();
+            notifyListeners();
+            return;
+        }
+        if (job.state == State.PAUSED) {
+            // Paused by the user; the partial download is resumed later
+        } else if (job.requeue) {
+            job.state = State.QUEUED;
+        } else if (error != null) {
+            job.state = State.FAILED;
+            job.error = error.getMessage();
+            job.completion().completeExceptionally(error);
+            System.err.println("Download of " + job.version.getName() + " failed: " + error.getMessage());
+        } else {
+            job.state = State.DONE;
+            job.progress = 1;
+            job.completion().complete(apkFile);
+        }
+        job.requeue = false;
+        changed();
+    }
+
+    private synchronized void suspend() {
+        suspended = true;
+        for (Job job : jobs) {
+            if (job.state == State.RUNNING) {
+                job.requeue = true;
+                job.future.cancel(true);
+            }
+        }
+        save();
+    }
+
+    private static Comparator<Job> jobOrder() {
+        return Comparator.comparingInt((Job job) -> -job.priority).thenComparingLong(job -> job.createdAt);
+    }
+
+    private static void notifyListeners() {
+        for (Runnable listener : LISTENERS) {
+            listener.run();
+        }
+    }
+
+    private void load() {
+        if (!queueFile.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(queueFile.toPath(), StandardCharsets.UTF_8)) {
+            QueueState state = GSON.fromJson(reader, QueueState.class);
+            if (state == null || state.jobs == null) {
+                return;
+            }
+            paused = state.paused;
+            for (Job job : state.jobs) {
+                if (job == null || job.version == null || job.version.getName() == null
+                        || findPending(job.version.getName()) != null) {
+                    continue;
+                }
+                if (job.state == null || job.state == State.RUNNING) {
+                    job.state = State.QUEUED;
+                }
+                jobs.add(job);
+            }
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Failed to read download queue: " + e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        QueueState state = new QueueState();
+        state.paused = paused;
+        state.jobs = new ArrayList<>();
+        for (Job job : jobs) {
+            if (job.state != State.DONE) {
+                state.jobs.add(job);
+            }
+        }
+        File parent = queueFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(queueFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(state, writer);
+            }
+            Files.move(tempFile.toPath(), queueFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
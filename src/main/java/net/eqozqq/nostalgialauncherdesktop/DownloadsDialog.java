@@ -0,0 +1,241 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class DownloadsDialog extends JDialog {
+    private static final int REFRESH_INTERVAL_MS = 500;
+
+    private final LocaleManager localeManager;
+    private final List<Version> availableVersions;
+    private final Set<String> requiredAbis;
+    private final JobTableModel tableModel = new JobTableModel();
+    private final JTable table = new JTable(tableModel);
+    private final JButton pauseAllButton = new JButton();
+    private final Timer refreshTimer;
+    private final Runnable queueListener = () -> SwingUtilities.invokeLater(this::refresh);
+
+    public DownloadsDialog(JFrame parent, LocaleManager localeManager, List<Version> availableVersions,
+                           Set<String> requiredAbis) {
+        super(parent, localeManager.get("downloads.title"), false);
+        this.localeManager = localeManager;
+        this.availableVersions = availableVersions;
+        this.requiredAbis = requiredAbis;
+        setSize(700, 400);
+        setLocationRelativeTo(parent);
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+        table.setRowHeight(26);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.getColumnModel().getColumn(2).setCellRenderer(new ProgressRenderer());
+        table.getColumnModel().getColumn(0).setPreferredWidth(140);
+        table.getColumnModel().getColumn(2).setPreferredWidth(200);
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        content.add(new JScrollPane(table), BorderLayout.CENTER);
+        content.add(createButtonsPanel(), BorderLayout.SOUTH);
+        add(content);
+
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refresh());
+        DownloadManager.addListener(queueListener);
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        DownloadManager.removeListener(queueListener);
+        super.dispose();
+    }
+
+    private JPanel createButtonsPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+
+        JButton installButton = new JButton(localeManager.get("button.installVersions"));
+        installButton.addActionListener(e -> showInstallVersions());
+        JButton pauseButton = new JButton(localeManager.get("button.pause"));
+        pauseButton.addActionListener(e -> {
+            for (DownloadManager.Job job : selectedJobs())
+                manager().pause(job);
+        });
+        JButton resumeButton = new JButton(localeManager.get("button.resume"));
+        resumeButton.addActionListener(e -> {
+            for (DownloadManager.Job job : selectedJobs())
+                manager().resume(job);
+        });
+        JButton cancelButton = new JButton(localeManager.get("button.cancel"));
+        cancelButton.addActionListener(e -> {
+            for (DownloadManager.Job job : selectedJobs())
+                manager().cancel(job);
+        });
+        pauseAllButton.addActionListener(e -> {
+            if (manager().isPaused())
+                manager().resumeAll();
+            else
+                manager().pauseAll();
+        });
+        JButton clearButton = new JButton(localeManager.get("button.clearFinished"));
+        clearButton.addActionListener(e -> manager().clearFinished());
+
+        panel.add(installButton);
+        panel.add(pauseButton);
+        panel.add(resumeButton);
+        panel.add(cancelButton);
+        panel.add(pauseAllButton);
+        panel.add(clearButton);
+        return panel;
+    }
+
+    private void showInstallVersions() {
+        DownloadManager manager = manager();
+        VersionManager versionManager = new VersionManager();
+        DefaultListModel<Version> listModel = new DefaultListModel<>();
+        for (Version version : availableVersions) {
+            if (!versionManager.isVersionInstalled(version) && !manager.hasPendingJob(version.getName()))
+                listModel.addElement(version);
+        }
+        JList<Version> list = new JList<>(listModel);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        list.setVisibleRowCount(12);
+        int choice = JOptionPane.showConfirmDialog(this, new JScrollPane(list),
+                localeManager.get("downloads.selectVersions"), JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION)
+            return;
+        for (Version version : list.getSelectedValuesList())
+            manager.enqueue(version, DownloadManager.PRIORITY_NORMAL, true, requiredAbis, 0);
+    }
+
+    private List<DownloadManager.Job> selectedJobs() {
+        List<DownloadManager.Job> selected = new ArrayList<>();
+        for (int row : table.getSelectedRows())
+            selected.add(tableModel.getJob(table.convertRowIndexToModel(row)));
+        return selected;
+    }
+
+    private DownloadManager manager() {
+        return DownloadManager.forActiveInstance();
+    }
+
+    private void refresh() {
+        DownloadManager manager = manager();
+        pauseAllButton.setText(localeManager.get(manager.isPaused() ? "button.resumeAll" : "button.pauseAll"));
+        List<String> selectedIds = new ArrayList<>();
+        for (DownloadManager.Job job : selectedJobs())
+            selectedIds.add(job.getId());
+        tableModel.setJobs(manager.getJobs());
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (selectedIds.contains(tableModel.getJob(row).getId()))
+                table.addRowSelectionInterval(row, row);
+        }
+    }
+
+    private String formatState(DownloadManager.Job job) {
+        String state = localeManager.get("downloads.state." + job.getState().name().toLowerCase());
+        if (job.getState() == DownloadManager.State.FAILED && job.getError() != null)
+            return state + ": " + job.getError();
+        return state;
+    }
+
+    private static String formatSpeed(double bytesPerSecond) {
+        if (bytesPerSecond <= 0)
+            return "";
+        if (bytesPerSecond >= 1024 * 1024)
+            return String.format("%.1f MB/s", bytesPerSecond / (1024 * 1024));
+        return String.format("%.0f KB/s", bytesPerSecond / 1024);
+    }
+
+    private static String formatEta(long seconds) {
+        if (seconds < 0)
+            return "";
+        if (seconds >= 3600)
+            return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private class JobTableModel extends AbstractTableModel {
+        private List<DownloadManager.Job> jobs = new ArrayList<>();
+
+        void setJobs(List<DownloadManager.Job> jobs) {
+            boolean sameRows = jobs.size() == this.jobs.size();
+            for (int i = 0; sameRows && i < jobs.size(); i++)
+                sameRows = jobs.get(i) == this.jobs.get(i);
+            this.jobs = jobs;
+            if (sameRows && !jobs.isEmpty())
+                fireTableRowsUpdated(0, jobs.size() - 1);
+            else
+                fireTableDataChanged();
+        }
+
+        DownloadManager.Job getJob(int row) {
+            return jobs.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return jobs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 5;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0:
+                    return localeManager.get("downloads.column.version");
+                case 1:
+                    return localeManager.get("downloads.column.status");
+                case 2:
+                    return localeManager.get("downloads.column.progress");
+                case 3:
+                    return localeManager.get("downloads.column.speed");
+                default:
+                    return localeManager.get("downloads.column.eta");
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            DownloadManager.Job job = jobs.get(row);
+            switch (column) {
+                case 0:
+                    return job.getVersion().getName();
+                case 1:
+                    return formatState(job);
+                case 2:
+                    return job.getProgress();
+                case 3:
+                    return formatSpeed(job.getSpeed());
+                default:
+                    return formatEta(job.getEtaSeconds());
+            }
+        }
+    }
+
+    private static class ProgressRenderer extends JProgressBar implements TableCellRenderer {
+        ProgressRenderer() {
+            super(0, 1000);
+            setStringPainted(true);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            double progress = value instanceof Double ? (Double) value : 0;
+            setValue((int) (progress * 1000));
+            setString(String.format("%.0f%%", progress * 100));
+            return this;
+        }
+    }
+}
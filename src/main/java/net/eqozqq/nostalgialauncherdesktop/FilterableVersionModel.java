@@ -0,0 +1,117 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+
+public class FilterableVersionModel extends AbstractListModel<Version> implements ComboBoxModel<Version> {
+    private final VersionCatalog catalog;
+    private int[] visible;
+    private String filter = "";
+    private Object selectedItem;
+
+    public FilterableVersionModel(VersionCatalog catalog) {
+        this.catalog = catalog;
+        this.visible = catalog.allIndices();
+        if (catalog.size() > 0) {
+            selectedItem = catalog.get(0);
+        }
+    }
+
+    public VersionCatalog getCatalog() {
+        return catalog;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String newFilter) {
+        String normalized = newFilter == null ? "" : newFilter;
+        if (normalized.equals(filter)) {
+            return;
+        }
+        boolean narrowing = !filter.isEmpty() && normalized.toLowerCase().startsWith(filter.toLowerCase());
+        visible = catalog.search(normalized, narrowing ? visible : null);
+        filter = normalized;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public int getSize() {
+        return visible.length;
+    }
+
+    @Override
+    public Version getElementAt(int index) {
+        return catalog.get(visible[index]);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item == selectedItem || (item != null && item.equals(selectedItem))) {
+            return;
+        }
+        selectedItem = item;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    public static void installTypeAhead(JComboBox<Version> comboBox) {
+        comboBox.setKeySelectionManager((key, model) -> -1);
+        comboBox.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                if (!(comboBox.getModel() instanceof FilterableVersionModel)) {
+                    return;
+                }
+                FilterableVersionModel model = (FilterableVersionModel) comboBox.getModel();
+                char c = e.getKeyChar();
+                String filter = model.getFilter();
+                if (c == KeyEvent.VK_BACK_SPACE) {
+                    if (filter.isEmpty()) {
+                        return;
+                    }
+                    filter = filter.substring(0, filter.length() - 1);
+                } else if (c == KeyEvent.VK_ESCAPE) {
+                    filter = "";
+                } else if (!Character.isISOControl(c)) {
+                    filter = filter + c;
+                } else {
+                    return;
+                }
+                model.setFilter(filter);
+                comboBox.setToolTipText(filter.isEmpty() ? null : filter);
+                if (comboBox.isShowing() && !comboBox.isPopupVisible()) {
+                    comboBox.showPopup();
+                }
+                e.consume();
+            }
+        });
+        comboBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                if (comboBox.getModel() instanceof FilterableVersionModel) {
+                    ((FilterableVersionModel) comboBox.getModel()).setFilter("");
+                    comboBox.setToolTipText(null);
+                }
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
+    }
+}
@@ -0,0 +1,225 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import org.apache.commons.io.FileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class GameDirLinker {
+    public enum Mode {
+        HARDLINK,
+        REFLINK,
+        COPY
+    }
+
+    private static final String PROBE_NAME = ".link_probe";
+    private static final Map<String, Mode> MODE_CACHE = new ConcurrentHashMap<>();
+
+    private GameDirLinker() {
+    }
+
+    public static Mode detectMode(File sourceRoot, File targetRoot) {
+        String key;
+        try {
+            key = sourceRoot.getCanonicalPath() + File.pathSeparator + targetRoot.getCanonicalPath();
+        } catch (IOException e) {
+            return Mode.COPY;
+        }
+        return MODE_CACHE.computeIfAbsent(key, k -> probeMode(sourceRoot, targetRoot));
+    }
+
+    private static Mode probeMode(File sourceRoot, File targetRoot) {
+        File source = new File(sourceRoot, PROBE_NAME);
+        File target = new File(targetRoot, PROBE_NAME);
+        try {
+            sourceRoot.mkdirs();
+            targetRoot.mkdirs();
+            Files.deleteIfExists(target.toPath());
+            Files.write(source.toPath(), new byte[] { 0 });
+            try {
+                Files.createLink(target.toPath(), source.toPath());
+                return Mode.HARDLINK;
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                Files.deleteIfExists(target.toPath());
+            }
+            if (runReflink(source, target)) {
+                return Mode.REFLINK;
+            }
+            return Mode.COPY;
+        } catch (IOException e) {
+            return Mode.COPY;
+        } finally {
+            source.delete();
+            target.delete();
+        }
+    }
+
+    public static void mirror(File sourceDir, File targetDir, Mode mode) throws IOException {
+        switch (mode) {
+            case HARDLINK:
+                linkTree(sourceDir.toPath(), targetDir.toPath());
+                break;
+            case REFLINK:
+                FileUtils.deleteDirectory(targetDir);
+                if (!runReflink(sourceDir, targetDir)) {
+                    FileUtils.deleteDirectory(targetDir);
+                    FileUtils.copyDirectory(sourceDir, targetDir);
+                }
+                break;
+            default:
+                FileUtils.copyDirectory(sourceDir, targetDir, true);
+                break;
+        }
+    }
+
+    public static void sync(File sourceRoot, File targetRoot, String[] subDirs, VersionManifest source,
+                            VersionManifest staged, Mode mode) throws IOException {
+        if (staged == null || !isStagingIntact(targetRoot, subDirs, staged)) {
+            fullSync(sourceRoot, targetRoot, subDirs, mode);
+            return;
+        }
+
+        boolean sameVersion = source.getVersion() != null && source.getVersion().equals(staged.getVersion());
+        boolean reuseAcrossVersions = mode != Mode.HARDLINK;
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, VersionManifest.Entry> entry : source.getFiles().entrySet()) {
+            VersionManifest.Entry stagedEntry = staged.get(entry.getKey());
+            boolean unchanged = sameVersion ? entry.getValue().sameStat(stagedEntry)
+                    : reuseAcrossVersions && entry.getValue().sameContent(stagedEntry);
+            if (!unchanged) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        if (mode == Mode.REFLINK && changed.size() > source.getFiles().size() / 2) {
+            fullSync(sourceRoot, targetRoot, subDirs, mode);
+            return;
+        }
+
+        Path sourcePath = sourceRoot.toPath();
+        Path targetPath = targetRoot.toPath();
+        for (String path : staged.getFiles().keySet()) {
+            if (source.get(path) == null) {
+                Files.deleteIfExists(targetPath.resolve(path));
+            }
+        }
+
+        Set<Path> directories = new TreeSet<>();
+        for (String path : changed) {
+            directories.add(targetPath.resolve(path).getParent());
+        }
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+        }
+        for (String path : changed) {
+            materialize(sourcePath.resolve(path), targetPath.resolve(path), mode);
+        }
+    }
+
+    private static boolean isStagingIntact(File targetRoot, String[] subDirs, VersionManifest staged) {
+        for (String subDir : subDirs) {
+            String prefix = subDir + "/";
+            boolean expected = false;
+            for (String path : staged.getFiles().keySet()) {
+                if (path.startsWith(prefix)) {
+                    expected = true;
+                    break;
+                }
+            }
+            if (expected != new File(targetRoot, subDir).isDirectory()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void fullSync(File sourceRoot, File targetRoot, String[] subDirs, Mode mode) throws IOException {
+        for (String subDir : subDirs) {
+            File target = new File(targetRoot, subDir);
+            if (target.exists()) {
+                FileUtils.deleteDirectory(target);
+            }
+            File source = new File(sourceRoot, subDir);
+            if (source.exists()) {
+                mirror(source, target, mode);
+            }
+        }
+    }
+
+    public static void materialize(Path source, Path target, Mode mode) throws IOException {
+        Files.deleteIfExists(target);
+        if (mode == Mode.HARDLINK) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.deleteIfExists(target);
+            }
+        } else if (mode == Mode.REFLINK && runReflink(source.toFile(), target.toFile())) {
+            return;
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    private static void linkTree(Path sourceDir, Path targetDir) throws IOException {
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(targetDir.resolve(sourceDir.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = targetDir.resolve(sourceDir.relativize(file));
+                try {
+                    Files.createLink(target, file);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean runReflink(File source, File target) {
+        String osName = System.getProperty("os.name").toLowerCase();
+        ProcessBuilder processBuilder;
+        if (osName.contains("linux")) {
+            processBuilder = new ProcessBuilder("cp", "-R", "--reflink=always",
+                    source.getAbsolutePath(), target.getAbsolutePath());
+        } else if (osName.contains("mac")) {
+            processBuilder = new ProcessBuilder("cp", "-R", "-c",
+                    source.getAbsolutePath(), target.getAbsolutePath());
+        } else {
+            return false;
+        }
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(new File("/dev/null"));
+        try {
+            Process process = processBuilder.start();
+            if (!process.waitFor(5, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class HomePanel extends JPanel {
     private JButton launchButton;
     private JButton refreshButton;
     private JButton addVersionButton;
+    private JButton downloadsButton;
     private JProgressBar progressBar;
     private JLabel statusLabel;
 
@@ -27,6 +28,7 @@ public class HomePanel extends JPanel {
     private ActionListener launchListener;
     private ActionListener refreshListener;
     private ActionListener addVersionListener;
+    private ActionListener downloadsListener;
 
     private static final int COMPONENT_WIDTH = 350;
 
@@ -169,8 +171,8 @@ public class HomePanel extends JPanel {
         } catch (Exception e) {
             e.printStackTrace();
         }
-        addVersionButton.setPreferredSize(new Dimension((int) (300 * scaleFactor), (int) (45 * scaleFactor)));
-        addVersionButton.setMaximumSize(new Dimension((int) (300 * scaleFactor), (int) (45 * scaleFactor)));
+        addVersionButton.setPreferredSize(new Dimension((int) (250 * scaleFactor), (int) (45 * scaleFactor)));
+        addVersionButton.setMaximumSize(new Dimension((int) (250 * scaleFactor), (int) (45 * scaleFactor)));
         addVersionButton.setFont(getRegularFont(Font.PLAIN, (float) (14 * scaleFactor)));
 
         refreshButton = new JButton();
@@ -185,8 +187,22 @@ public class HomePanel extends JPanel {
         refreshButton.setMaximumSize(new Dimension((int) (45 * scaleFactor), (int) (45 * scaleFactor)));
         refreshButton.setToolTipText(localeManager.get("tooltip.refreshVersions", "Refresh"));
 
+        downloadsButton = new JButton();
+        try {
+            FlatSVGIcon icon = new FlatSVGIcon("icons/download.svg", (int) (18 * scaleFactor), (int) (18 * scaleFactor));
+            icon.setColorFilter(new FlatSVGIcon.ColorFilter(color -> isDark ? Color.WHITE : Color.BLACK));
+            downloadsButton.setIcon(icon);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        downloadsButton.setPreferredSize(new Dimension((int) (45 * scaleFactor), (int) (45 * scaleFactor)));
+        downloadsButton.setMaximumSize(new Dimension((int) (45 * scaleFactor), (int) (45 * scaleFactor)));
+        downloadsButton.setToolTipText(localeManager.get("tooltip.downloads", "Downloads"));
+
         managePanel.add(addVersionButton);
         managePanel.add(Box.createHorizontalStrut((int) (5 * scaleFactor)));
+        managePanel.add(downloadsButton);
+        managePanel.add(Box.createHorizontalStrut((int) (5 * scaleFactor)));
         managePanel.add(refreshButton);
 
         gamePanel.add(managePanel);
@@ -354,4 +370,12 @@ public class HomePanel extends JPanel {
         addVersionListener = listener;
         addVersionButton.addActionListener(listener);
     }
+
+    public void setDownloadsListener(ActionListener listener) {
+        if (downloadsListener != null) {
+            downloadsButton.removeActionListener(downloadsListener);
+        }
+        downloadsListener = listener;
+        downloadsButton.addActionListener(listener);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class HttpManager {
+    private static final int MAX_CONNECTIONS_TOTAL = 16;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 8;
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+    private static final int CONNECTION_REQUEST_TIMEOUT_MS = 10000;
+    private static final int SOCKET_TIMEOUT_MS = 30000;
+    private static final long DEFAULT_KEEP_ALIVE_MS = 30000;
+    private static final long IDLE_EVICTION_SECONDS = 60;
+    private static final int MAX_RETRIES = 3;
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OFFLINE_INTERVAL_MS = 60000;
+
+    private static HttpManager instance;
+
+    private final CloseableHttpClient httpClient;
+    private int consecutiveFailures;
+    private long offlineUntil;
+
+    public static class OfflineException extends IOException {
+        public OfflineException(String message) {
+            super(message);
+        }
+    }
+
+    private HttpManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT_MS)
+                .setSocketTimeout(SOCKET_TIMEOUT_MS)
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE_MS;
+                })
+                .setRetryHandler(new BackoffRetryHandler())
+                .setServiceUnavailableRetryStrategy(new BackoffServiceUnavailableStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_EVICTION_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public static synchronized HttpManager getInstance() {
+        if (instance == null) {
+            instance = new HttpManager();
+        }
+        return instance;
+    }
+
+    public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+        if (isOffline()) {
+            throw new OfflineException("httpManager.error.offline:" + request.getURI());
+        }
+        try {
+            CloseableHttpResponse response = httpClient.execute(request);
+            recordSuccess();
+            return response;
+        } catch (IOException e) {
+            if (!request.isAborted()) {
+                recordFailure(e);
+            }
+            throw e;
+        }
+    }
+
+    public CloseableHttpResponse executeUncounted(HttpUriRequest request) throws IOException {
+        if (isOffline()) {
+            throw new OfflineException("httpManager.error.offline:" + request.getURI());
+        }
+        return httpClient.execute(request);
+    }
+
+    public synchronized boolean isOffline() {
+        return consecutiveFailures >= FAILURE_THRESHOLD && System.currentTimeMillis() < offlineUntil;
+    }
+
+    public synchronized void reset() {
+        consecutiveFailures = 0;
+        offlineUntil = 0;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        offlineUntil = 0;
+    }
+
+    public void recordFailure(IOException e) {
+        if (Thread.currentThread().isInterrupted() || !isConnectivityFailure(e)) {
+            return;
+        }
+        recordFailure();
+    }
+
+    private synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            offlineUntil = System.currentTimeMillis() + OFFLINE_INTERVAL_MS;
+        }
+    }
+
+    private static boolean isConnectivityFailure(IOException e) {
+        if (e instanceof ConnectionPoolTimeoutException) {
+            return false;
+        }
+        return e instanceof ConnectTimeoutException || e instanceof ConnectException
+                || e instanceof NoRouteToHostException || e instanceof UnknownHostException
+                || e instanceof SocketTimeoutException;
+    }
+
+    private static long backoff(int attempt) {
+        return INITIAL_BACKOFF_MS << Math.min(attempt - 1, 4);
+    }
+
+    private static class BackoffRetryHandler extends DefaultHttpRequestRetryHandler {
+        BackoffRetryHandler() {
+            // Unlike the default list, timeouts and refused connections are retried
+            super(MAX_RETRIES, false, Arrays.asList(UnknownHostException.class, SSLException.class,
+                    ConnectionPoolTimeoutException.class));
+        }
+
+        @Override
+        public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+            if (Thread.currentThread().isInterrupted() || exception.getClass() == InterruptedIOException.class) {
+                return false;
+            }
+            if (!super.retryRequest(exception, executionCount, context)) {
+                return false;
+            }
+            try {
+                Thread.sleep(backoff(executionCount));
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static class BackoffServiceUnavailableStrategy implements ServiceUnavailableRetryStrategy {
+        private final ThreadLocal<Integer> attempt = ThreadLocal.withInitial(() -> 1);
+
+        @Override
+        public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+            int status = response.getStatusLine().getStatusCode();
+            boolean transientError = status == HttpStatus.SC_BAD_GATEWAY || status == HttpStatus.SC_SERVICE_UNAVAILABLE
+                    || status == HttpStatus.SC_GATEWAY_TIMEOUT || status == 429;
+            if (!transientError || executionCount > MAX_RETRIES) {
+                return false;
+            }
+            attempt.set(executionCount);
+            return true;
+        }
+
+        @Override
+        public long getRetryInterval() {
+            return backoff(attempt.get());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InstalledVersionsIndex {
+    private static final String VERSIONS_DIR = "versions";
+    private static final String APK_STORE_DIR = "cache" + File.separator + "apks";
+    private static final String INDEX_FILE = "cache" + File.separator + "installed_versions.json";
+    private static final String APK_SUFFIX = ".apk";
+    private static final Gson GSON = new Gson();
+    private static final List<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static InstalledVersionsIndex current;
+
+    private final File versionsDir;
+    private final File apkStoreDir;
+    private final File indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    public static class Entry {
+        private long installedAt;
+        private long size;
+        private boolean manifest;
+
+        public long getInstalledAt() {
+            return installedAt;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean hasManifest() {
+            return manifest;
+        }
+    }
+
+    private InstalledVersionsIndex(File versionsDir, File apkStoreDir, File indexFile) {
+        this.versionsDir = versionsDir;
+        this.apkStoreDir = apkStoreDir;
+        this.indexFile = indexFile;
+    }
+
+    public static synchronized InstalledVersionsIndex forActiveInstance() {
+        File versionsDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR)).getAbsoluteFile();
+        if (current == null || !current.versionsDir.equals(versionsDir)) {
+            if (current != null) {
+                current.close();
+            }
+            current = new InstalledVersionsIndex(versionsDir,
+                    new File(InstanceManager.getInstance().resolvePath(APK_STORE_DIR)).getAbsoluteFile(),
+                    new File(InstanceManager.getInstance().resolvePath(INDEX_FILE)));
+            current.open();
+            notifyListeners();
+        }
+        return current;
+    }
+
+    public static void addListener(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+
+    public boolean isInstalled(String versionName) {
+        return entries.containsKey(versionName);
+    }
+
+    public Entry getEntry(String versionName) {
+        return entries.get(versionName);
+    }
+
+    public Set<String> getInstalledVersions() {
+        return entries.keySet();
+    }
+
+    public void refresh(String versionName) {
+        if (updateEntry(versionName)) {
+            save();
+            notifyListeners();
+        }
+    }
+
+    private boolean updateEntry(String versionName) {
+        File versionDir = new File(versionsDir, versionName);
+        if (versionName.startsWith(".") || !versionDir.isDirectory()
+                || !VersionManager.isInstallComplete(versionDir)) {
+            return entries.remove(versionName) != null;
+        }
+        File manifestFile = new File(versionDir, VersionManifest.FILE_NAME);
+        VersionManifest manifest = VersionManifest.load(manifestFile);
+        Entry entry = new Entry();
+        entry.manifest = manifest != null;
+        entry.installedAt = manifest != null ? manifestFile.lastModified() : versionDir.lastModified();
+        if (manifest != null) {
+            for (VersionManifest.Entry file : manifest.getFiles().values()) {
+                entry.size += file.getSize();
+            }
+        }
+        Entry previous = entries.put(versionName, entry);
+        return previous == null || previous.manifest != entry.manifest || previous.size != entry.size
+                || previous.installedAt != entry.installedAt;
+    }
+
+    private void open() {
+        entries.putAll(load());
+        versionsDir.mkdirs();
+        apkStoreDir.mkdirs();
+        try {
+            watchService = versionsDir.toPath().getFileSystem().newWatchService();
+            versionsDir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            apkStoreDir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("Failed to watch versions directory: " + e.getMessage());
+            watchService = null;
+        }
+        reconcile();
+        if (watchService == null) {
+            return;
+        }
+        Thread watchThread = new Thread(this::watch, "versions-index");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        reconcile();
+                        continue;
+                    }
+                    String name = ((Path) event.context()).getFileName().toString();
+                    if (dir.equals(versionsDir.toPath())) {
+                        changed |= updateEntry(name);
+                    } else if (name.endsWith(APK_SUFFIX)) {
+                        ApkStore.forActiveInstance().forgetBlob(name.substring(0, name.length() - APK_SUFFIX.length()));
+                    }
+                }
+                if (changed) {
+                    save();
+                    notifyListeners();
+                }
+                if (!key.reset()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Index was rebound to another instance
+        }
+    }
+
+    private void reconcile() {
+        Set<String> names = new HashSet<>();
+        File[] dirs = versionsDir.listFiles(file -> file.isDirectory() && !file.getName().startsWith("."));
+        if (dirs != null) {
+            for (File dir : dirs) {
+                names.add(dir.getName());
+            }
+        }
+        boolean changed = entries.keySet().retainAll(names);
+        for (String name : names) {
+            Entry entry = entries.get(name);
+            if (entry == null || !entry.manifest) {
+                changed |= updateEntry(name);
+            }
+        }
+        if (changed) {
+            save();
+            notifyListeners();
+        }
+    }
+
+    private static void notifyListeners() {
+        for (Runnable listener : LISTENERS) {
+            listener.run();
+        }
+    }
+
+    private Map<String, Entry> load() {
+        if (!indexFile.isFile()) {
+            return new HashMap<>();
+        }
+        try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            Type mapType = new TypeToken<HashMap<String, Entry>>(){}.getType();
+            Map<String, Entry> loaded = GSON.fromJson(reader, mapType);
+            return loaded != null ? loaded : new HashMap<>();
+        } catch (IOException | JsonParseException e) {
+            return new HashMap<>();
+        }
+    }
+
+    private synchronized void save() {
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(new HashMap<>(entries), writer);
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Properties;
+
+public class LaunchFingerprint {
+    public static final String FILE_NAME = ".launch_fingerprint";
+
+    private final Properties values = new Properties();
+
+    private LaunchFingerprint() {
+    }
+
+    public static LaunchFingerprint compute(String versionName, long versionStamp, String executableSource,
+                                            File executable, String nickname) {
+        LaunchFingerprint fingerprint = new LaunchFingerprint();
+        fingerprint.values.setProperty("version", versionName);
+        fingerprint.values.setProperty("versionStamp", String.valueOf(versionStamp));
+        fingerprint.values.setProperty("executableSource", String.valueOf(executableSource));
+        fingerprint.values.setProperty("executable", executable.getAbsolutePath());
+        fingerprint.values.setProperty("executableSize", String.valueOf(executable.length()));
+        fingerprint.values.setProperty("executableModified", String.valueOf(executable.lastModified()));
+        fingerprint.values.setProperty("nickname", nickname);
+        return fingerprint;
+    }
+
+    public static LaunchFingerprint load(File gameDir) {
+        File file = new File(gameDir, FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+        LaunchFingerprint fingerprint = new LaunchFingerprint();
+        try (FileInputStream fis = new FileInputStream(file)) {
+            fingerprint.values.load(fis);
+        } catch (IOException e) {
+            return null;
+        }
+        return fingerprint;
+    }
+
+    public static void invalidate(File gameDir) {
+        new File(gameDir, FILE_NAME).delete();
+    }
+
+    public void save(File gameDir) {
+        try (FileOutputStream fos = new FileOutputStream(new File(gameDir, FILE_NAME))) {
+            values.store(fos, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public boolean matches(LaunchFingerprint other) {
+        return other != null && Objects.equals(values, other.values);
+    }
+}
@@ -0,0 +1,189 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class MirrorHealth {
+    private static final String HEALTH_FILE = "cache" + File.separator + "mirror_health.json";
+    private static final double SMOOTHING = 0.3;
+    private static final double DEFAULT_BYTES_PER_SECOND = 1024 * 1024;
+    private static final double REFERENCE_BYTES = 8 * 1024 * 1024;
+    private static final long FAILURE_COOLDOWN_MS = 5 * 60 * 1000;
+    private static final long SAVE_INTERVAL_MS = 5000;
+    private static final Gson GSON = new Gson();
+
+    private static MirrorHealth current;
+
+    private final File healthFile;
+    private final Map<String, Stats> hosts;
+    private long lastSave;
+
+    private static class Stats {
+        double latencyMs;
+        double bytesPerSecond;
+        int successes;
+        int failures;
+        long lastFailureAt;
+    }
+
+    private MirrorHealth(File healthFile) {
+        this.healthFile = healthFile;
+        this.hosts = load(healthFile);
+    }
+
+    public static synchronized MirrorHealth forActiveInstance() {
+        File healthFile = new File(InstanceManager.getInstance().resolvePath(HEALTH_FILE)).getAbsoluteFile();
+        if (current == null || !current.healthFile.equals(healthFile)) {
+            if (current != null) {
+                current.flush();
+            }
+            current = new MirrorHealth(healthFile);
+        }
+        return current;
+    }
+
+    public static List<String> distinct(List<String> urls) {
+        List<String> result = new ArrayList<>();
+        for (String url : new LinkedHashSet<>(urls)) {
+            if (url != null && !url.isEmpty()) {
+                result.add(url);
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<String> rank(List<String> urls) {
+        List<String> ranked = distinct(urls);
+        long now = System.currentTimeMillis();
+        ranked.sort(Comparator.comparingDouble(url -> score(hosts.get(hostOf(url)), now)));
+        return ranked;
+    }
+
+    public synchronized boolean hasFasterMirror(List<String> urls, double bytesPerSecond) {
+        long now = System.currentTimeMillis();
+        for (String url : urls) {
+            Stats stats = hosts.get(hostOf(url));
+            if (stats == null) {
+                return true;
+            }
+            if (stats.failures > 0 && now - stats.lastFailureAt < FAILURE_COOLDOWN_MS * Math.min(stats.failures, 6)) {
+                continue;
+            }
+            if (stats.bytesPerSecond == 0 || stats.bytesPerSecond > bytesPerSecond) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void recordProbe(String url, long latencyMs) {
+        Stats stats = stats(url);
+        stats.latencyMs = stats.latencyMs == 0 ? latencyMs : smooth(stats.latencyMs, latencyMs);
+        save(false);
+    }
+
+    public synchronized void recordTransfer(String url, long bytes, long nanos) {
+        if (bytes <= 0 || nanos <= 0) {
+            return;
+        }
+        Stats stats = stats(url);
+        double rate = bytes * 1e9 / nanos;
+        stats.bytesPerSecond = stats.bytesPerSecond == 0 ? rate : smooth(stats.bytesPerSecond, rate);
+        stats.successes++;
+        stats.failures = 0;
+        save(false);
+    }
+
+    public synchronized void recordFailure(String url) {
+        Stats stats = stats(url);
+        stats.failures++;
+        stats.lastFailureAt = System.currentTimeMillis();
+        save(true);
+    }
+
+    public synchronized void flush() {
+        save(true);
+    }
+
+    private Stats stats(String url) {
+        return hosts.computeIfAbsent(hostOf(url), key -> new Stats());
+    }
+
+    private static double smooth(double current, double sample) {
+        return current * (1 - SMOOTHING) + sample * SMOOTHING;
+    }
+
+    private static double score(Stats stats, long now) {
+        if (stats == null) {
+            return REFERENCE_BYTES / DEFAULT_BYTES_PER_SECOND;
+        }
+        double rate = stats.bytesPerSecond > 0 ? stats.bytesPerSecond : DEFAULT_BYTES_PER_SECOND;
+        double seconds = stats.latencyMs / 1000.0 + REFERENCE_BYTES / rate;
+        if (stats.failures > 0 && now - stats.lastFailureAt < FAILURE_COOLDOWN_MS * Math.min(stats.failures, 6)) {
+            seconds += 3600.0 * stats.failures;
+        }
+        return seconds;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getAuthority() != null ? uri.getAuthority().toLowerCase() : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private void save(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastSave < SAVE_INTERVAL_MS) {
+            return;
+        }
+        lastSave = now;
+        File parent = healthFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(healthFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(hosts, writer);
+            }
+            Files.move(tempFile.toPath(), healthFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Map<String, Stats> load(File healthFile) {
+        if (healthFile.isFile()) {
+            try (Reader reader = Files.newBufferedReader(healthFile.toPath(), StandardCharsets.UTF_8)) {
+                Type mapType = new TypeToken<HashMap<String, Stats>>(){}.getType();
+                Map<String, Stats> loaded = GSON.fromJson(reader, mapType);
+                if (loaded != null) {
+                    return loaded;
+                }
+            } catch (IOException | JsonParseException e) {
+                System.err.println("Failed to read mirror health: " + e.getMessage());
+            }
+        }
+        return new HashMap<>();
+    }
+}
@@ -11,6 +11,7 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ItemEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.image.BufferedImage;
 import java.awt.image.ConvolveOp;
@@ -20,18 +21,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.Arrays;
 import javax.imageio.ImageIO;
-import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import net.eqozqq.nostalgialauncherdesktop.WorldManager.WorldsManagerPanel;
 import net.eqozqq.nostalgialauncherdesktop.TexturesManager.TexturesManagerPanel;
 import net.eqozqq.nostalgialauncherdesktop.Instances.InstancesPanel;
@@ -60,6 +57,9 @@ public class NostalgiaLauncherDesktop extends JFrame {
     private Color customBackgroundColor;
 
     private VersionManager versionManager;
+    private ComponentsManager componentsManager;
+    private VersionPrefetcher versionPrefetcher;
+    private int versionsLoadGeneration;
     private GameLauncher gameLauncher;
     private Properties settings;
     private LocaleManager localeManager;
@@ -76,6 +76,12 @@ public class NostalgiaLauncherDesktop extends JFrame {
     private String postLaunchAction;
     private boolean enableDebugging;
     private boolean unlockPurchases;
+    private boolean streamingInstall;
+    private boolean backgroundPrefetch;
+    private boolean prefetchExtract;
+    private int downloadMaxConcurrent;
+    private int downloadMaxPerHost;
+    private long downloadBandwidthLimit;
     private String lastPlayedVersionName;
     private double scaleFactor;
     private String themeName;
@@ -85,17 +91,33 @@ public class NostalgiaLauncherDesktop extends JFrame {
 
     private static final int COMPONENT_WIDTH = 300;
     private static final String DEFAULT_VERSIONS_URL = "https://raw.githubusercontent.com/NLauncher/components/main/versions.json";
-    private static final String DEFAULT_LAUNCHER_URL_WINDOWS = "https://github.com/NLauncher/components/raw/main/ninecraft-windows.zip";
-    private static final String DEFAULT_LAUNCHER_URL_LINUX = "https://github.com/NLauncher/components/raw/main/ninecraft-linux.zip";
+    private static final List<String> DEFAULT_LAUNCHER_URLS_WINDOWS = Arrays.asList(
+            "https://github.com/NLauncher/components/raw/main/ninecraft-windows.zip",
+            "https://raw.githubusercontent.com/NLauncher/components/main/ninecraft-windows.zip",
+            "https://cdn.jsdelivr.net/gh/NLauncher/components@main/ninecraft-windows.zip");
+    private static final List<String> DEFAULT_LAUNCHER_URLS_LINUX = Arrays.asList(
+            "https://github.com/NLauncher/components/raw/main/ninecraft-linux.zip",
+            "https://raw.githubusercontent.com/NLauncher/components/main/ninecraft-linux.zip",
+            "https://cdn.jsdelivr.net/gh/NLauncher/components@main/ninecraft-linux.zip");
 
     public NostalgiaLauncherDesktop() {
         versionManager = new VersionManager();
+        componentsManager = new ComponentsManager();
+        versionPrefetcher = new VersionPrefetcher(versionManager);
         gameLauncher = new GameLauncher();
         settings = new Properties();
         localeManager = LocaleManager.getInstance();
         loadSettings();
         localeManager.init(settings);
         InstanceManager.getInstance().init(settings);
+        DownloadManager.configure(downloadMaxConcurrent, downloadMaxPerHost, downloadBandwidthLimit * 1024);
+        DownloadManager.forActiveInstance().restore();
+        versionManager.cleanupStagingAsync();
+        ApkStore.forActiveInstance().migrateLegacyAsync();
+        InstalledVersionsIndex.addListener(() -> SwingUtilities.invokeLater(() -> {
+            if (versionComboBox != null)
+                versionComboBox.repaint();
+        }));
         applyTheme();
         loadBackground();
         loadingOverlay = new LoadingOverlay();
@@ -281,6 +303,12 @@ public class NostalgiaLauncherDesktop extends JFrame {
             postLaunchAction = settings.getProperty("postLaunchAction", "Do Nothing");
             enableDebugging = Boolean.parseBoolean(settings.getProperty("enableDebugging", "false"));
             unlockPurchases = Boolean.parseBoolean(settings.getProperty("unlockPurchases", "false"));
+            streamingInstall = Boolean.parseBoolean(settings.getProperty("streamingInstall", "true"));
+            backgroundPrefetch = Boolean.parseBoolean(settings.getProperty("backgroundPrefetch", "true"));
+            prefetchExtract = Boolean.parseBoolean(settings.getProperty("prefetchExtract", "false"));
+            downloadMaxConcurrent = Integer.parseInt(settings.getProperty("downloadMaxConcurrent", "2"));
+            downloadMaxPerHost = Integer.parseInt(settings.getProperty("downloadMaxPerHost", "2"));
+            downloadBandwidthLimit = Long.parseLong(settings.getProperty("downloadBandwidthLimit", "0"));
             lastPlayedVersionName = settings.getProperty("lastPlayedVersionName");
             scaleFactor = Double.parseDouble(settings.getProperty("scaleFactor", "1.3"));
             themeName = settings.getProperty("themeName", "Dark");
@@ -292,6 +320,12 @@ public class NostalgiaLauncherDesktop extends JFrame {
             postLaunchAction = "Do Nothing";
             enableDebugging = false;
             unlockPurchases = false;
+            streamingInstall = true;
+            backgroundPrefetch = true;
+            prefetchExtract = false;
+            downloadMaxConcurrent = 2;
+            downloadMaxPerHost = 2;
+            downloadBandwidthLimit = 0;
             scaleFactor = 1.3;
             themeName = "Dark";
         }
@@ -317,6 +351,12 @@ public class NostalgiaLauncherDesktop extends JFrame {
             settings.setProperty("postLaunchAction", postLaunchAction);
             settings.setProperty("enableDebugging", String.valueOf(enableDebugging));
             settings.setProperty("unlockPurchases", String.valueOf(unlockPurchases));
+            settings.setProperty("streamingInstall", String.valueOf(streamingInstall));
+            settings.setProperty("backgroundPrefetch", String.valueOf(backgroundPrefetch));
+            settings.setProperty("prefetchExtract", String.valueOf(prefetchExtract));
+            settings.setProperty("downloadMaxConcurrent", String.valueOf(downloadMaxConcurrent));
+            settings.setProperty("downloadMaxPerHost", String.valueOf(downloadMaxPerHost));
+            settings.setProperty("downloadBandwidthLimit", String.valueOf(downloadBandwidthLimit));
             if (lastPlayedVersionName != null)
                 settings.setProperty("lastPlayedVersionName", lastPlayedVersionName);
             settings.setProperty("scaleFactor", String.valueOf(scaleFactor));
@@ -373,16 +413,26 @@ public class NostalgiaLauncherDesktop extends JFrame {
 
         homePanel = new HomePanel(localeManager, scaleFactor, themeName, versionManager);
         homePanel.setLaunchListener(new LaunchButtonListener());
-        homePanel.setRefreshListener(e -> loadVersions());
+        homePanel.setRefreshListener(e -> {
+            HttpManager.getInstance().reset();
+            loadVersions();
+        });
         homePanel.setAddVersionListener(e -> showAddVersionDialog());
+        homePanel.setDownloadsListener(e -> showDownloadsDialog());
 
         nicknameField = homePanel.getNicknameField();
         versionComboBox = homePanel.getVersionComboBox();
+        FilterableVersionModel.installTypeAhead(versionComboBox);
+        versionComboBox.addItemListener(e -> {
+            if (e.getStateChange() == ItemEvent.SELECTED)
+                schedulePrefetch();
+        });
         launchButton = homePanel.getLaunchButton();
         refreshButton = homePanel.getRefreshButton();
         addVersionButton = homePanel.getAddVersionButton();
         progressBar = homePanel.getProgressBar();
         statusLabel = homePanel.getStatusLabel();
+        installVersionMenu();
 
         worldsPanel = new WorldsManagerPanel(localeManager, themeName);
         texturesPanel = new TexturesManagerPanel(localeManager, themeName);
@@ -390,6 +440,9 @@ public class NostalgiaLauncherDesktop extends JFrame {
 
         instancesPanel.setOnInstanceChanged(() -> {
             saveSettings();
+            DownloadManager.forActiveInstance().restore();
+            versionManager.cleanupStagingAsync();
+            ApkStore.forActiveInstance().migrateLegacyAsync();
             initializeUI();
             loadVersions();
             loadNickname();
@@ -499,13 +552,7 @@ public class NostalgiaLauncherDesktop extends JFrame {
         if (newVersion != null) {
             try {
                 versionManager.addAndSaveCustomVersion(newVersion);
-                loadVersions();
-                for (int i = 0; i < versionComboBox.getItemCount(); i++) {
-                    if (versionComboBox.getItemAt(i).getName().equals(newVersion.getName())) {
-                        versionComboBox.setSelectedIndex(i);
-                        break;
-                    }
-                }
+                loadVersions(newVersion.getName());
             } catch (IOException e) {
                 JOptionPane.showMessageDialog(this, localeManager.get("version.add.error.save", e.getMessage()),
                         localeManager.get("dialog.error.title"), JOptionPane.ERROR_MESSAGE);
@@ -577,11 +624,14 @@ public class NostalgiaLauncherDesktop extends JFrame {
         }
     }
 
+    private String getNickname() {
+        String nickname = nicknameField.getText().trim();
+        return nickname.isEmpty() ? "Steve" : nickname;
+    }
+
     private void saveNickname() {
         try {
-            String nickname = nicknameField.getText().trim();
-            if (nickname.isEmpty())
-                nickname = "Steve";
+            String nickname = getNickname();
             File optionsDir = new File(
                     InstanceManager.getInstance().resolvePath("game/storage/games/com.mojang/minecraftpe"));
             if (!optionsDir.exists())
@@ -602,35 +652,27 @@ public class NostalgiaLauncherDesktop extends JFrame {
     }
 
     private void loadVersions() {
-        SwingWorker<List<Version>, Void> worker = new SwingWorker<List<Version>, Void>() {
+        loadVersions(null);
+    }
+
+    private void loadVersions(String preferredVersionName) {
+        final int generation = ++versionsLoadGeneration;
+        final String source = useDefaultVersionsSource ? DEFAULT_VERSIONS_URL : customVersionsSource;
+        statusLabel.setText(localeManager.get("status.loadingVersions"));
+        refreshButton.setEnabled(false);
+        addVersionButton.setEnabled(false);
+        SwingWorker<VersionCatalog, Void> worker = new SwingWorker<VersionCatalog, Void>() {
             @Override
-            protected List<Version> doInBackground() throws Exception {
-                statusLabel.setText(localeManager.get("status.loadingVersions"));
-                refreshButton.setEnabled(false);
-                addVersionButton.setEnabled(false);
-                String source = useDefaultVersionsSource ? DEFAULT_VERSIONS_URL : customVersionsSource;
-                return versionManager.loadVersions(source);
+            protected VersionCatalog doInBackground() throws Exception {
+                return versionManager.loadCachedVersions(source);
             }
 
             @Override
             protected void done() {
+                if (generation != versionsLoadGeneration)
+                    return;
                 try {
-                    List<Version> versions = get();
-                    versionComboBox.removeAllItems();
-                    for (Version version : versions)
-                        versionComboBox.addItem(version);
-                    versionManager.updateInstalledVersions();
-                    String instanceName = InstanceManager.getInstance().getActiveInstance();
-                    statusLabel.setText(localeManager.get("status.versionsAvailable", versions.size()) + " — "
-                            + localeManager.get("label.instance") + ": " + instanceName);
-                    if (lastPlayedVersionName != null) {
-                        for (int i = 0; i < versionComboBox.getItemCount(); i++) {
-                            if (versionComboBox.getItemAt(i).getName().equals(lastPlayedVersionName)) {
-                                versionComboBox.setSelectedIndex(i);
-                                break;
-                            }
-                        }
-                    }
+                    applyVersions(get(), preferredVersionName != null ? preferredVersionName : lastPlayedVersionName);
                 } catch (Exception e) {
                     JOptionPane.showMessageDialog(NostalgiaLauncherDesktop.this,
                             localeManager.get("error.loadVersions", e.getMessage()),
@@ -640,11 +682,148 @@ public class NostalgiaLauncherDesktop extends JFrame {
                     refreshButton.setEnabled(true);
                     addVersionButton.setEnabled(true);
                 }
+                revalidateVersions(source, generation);
+            }
+        };
+        worker.execute();
+    }
+
+    private void revalidateVersions(String source, int generation) {
+        SwingWorker<VersionCatalog, Void> worker = new SwingWorker<VersionCatalog, Void>() {
+            @Override
+            protected VersionCatalog doInBackground() throws Exception {
+                return versionManager.revalidateVersions(source);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != versionsLoadGeneration)
+                    return;
+                try {
+                    VersionCatalog catalog = get();
+                    if (catalog != null) {
+                        Version selected = (Version) versionComboBox.getSelectedItem();
+                        applyVersions(catalog, selected != null ? selected.getName() : lastPlayedVersionName);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Failed to revalidate versions: " + e.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void applyVersions(VersionCatalog catalog, String selectedVersionName) {
+        FilterableVersionModel model = new FilterableVersionModel(catalog);
+        Version selected = catalog.get(selectedVersionName);
+        if (selected != null) {
+            model.setSelectedItem(selected);
+        }
+        versionComboBox.setModel(model);
+        versionManager.updateInstalledVersions();
+        schedulePrefetch();
+        String instanceName = InstanceManager.getInstance().getActiveInstance();
+        statusLabel.setText(localeManager.get("status.versionsAvailable", catalog.size()) + " — "
+                + localeManager.get("label.instance") + ": " + instanceName);
+    }
+
+    private void showDownloadsDialog() {
+        List<Version> versions = new ArrayList<>();
+        if (versionComboBox.getModel() instanceof FilterableVersionModel)
+            versions.addAll(((FilterableVersionModel) versionComboBox.getModel()).getCatalog().getVersions());
+        new DownloadsDialog(this, localeManager, versions, VersionManager.requiredAbis(executableSource))
+                .setVisible(true);
+    }
+
+    private void installVersionMenu() {
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem verifyItem = new JMenuItem(localeManager.get("menu.verifyFiles"));
+        verifyItem.addActionListener(e -> verifySelectedVersion());
+        menu.add(verifyItem);
+        menu.addPopupMenuListener(new javax.swing.event.PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(javax.swing.event.PopupMenuEvent e) {
+                Version version = (Version) versionComboBox.getSelectedItem();
+                verifyItem.setEnabled(version != null && versionComboBox.isEnabled()
+                        && versionManager.isVersionInstalled(version));
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(javax.swing.event.PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(javax.swing.event.PopupMenuEvent e) {
+            }
+        });
+        versionComboBox.setComponentPopupMenu(menu);
+    }
+
+    private void verifySelectedVersion() {
+        Version version = (Version) versionComboBox.getSelectedItem();
+        if (version == null)
+            return;
+        launchButton.setEnabled(false);
+        versionComboBox.setEnabled(false);
+        progressBar.setVisible(true);
+        progressBar.setValue(0);
+        progressBar.setString(localeManager.get("progress.verifying"));
+        statusLabel.setText(localeManager.get("status.verifying", version.getName()));
+        SwingWorker<VersionVerifier.Report, Integer> worker = new SwingWorker<VersionVerifier.Report, Integer>() {
+            @Override
+            protected VersionVerifier.Report doInBackground() throws Exception {
+                return new VersionVerifier(versionManager).verify(version, true,
+                        progress -> publish((int) (progress * 100)));
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                if (!chunks.isEmpty())
+                    progressBar.setValue(chunks.get(chunks.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    VersionVerifier.Report report = get();
+                    String message;
+                    if (!report.isHealthy())
+                        message = localeManager.get("dialog.verify.unrepaired", version.getName(),
+                                report.getUnrepaired().size(), String.join("\n", report.getUnrepaired()));
+                    else if (!report.getRepaired().isEmpty())
+                        message = localeManager.get("dialog.verify.repaired", version.getName(),
+                                report.getRepaired().size());
+                    else
+                        message = localeManager.get("dialog.verify.healthy", version.getName(), report.getChecked());
+                    if (!report.getOverlays().isEmpty())
+                        message += "\n" + localeManager.get("dialog.verify.overlays", report.getOverlays().size());
+                    JOptionPane.showMessageDialog(NostalgiaLauncherDesktop.this, message,
+                            localeManager.get("dialog.verify.title"), report.isHealthy()
+                                    ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                } catch (Exception e) {
+                    String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    JOptionPane.showMessageDialog(NostalgiaLauncherDesktop.this, message,
+                            localeManager.get("dialog.verify.title"), JOptionPane.ERROR_MESSAGE);
+                } finally {
+                    statusLabel.setText(localeManager.get("status.ready"));
+                    progressBar.setVisible(false);
+                    launchButton.setEnabled(true);
+                    versionComboBox.setEnabled(true);
+                }
             }
         };
         worker.execute();
     }
 
+    private void schedulePrefetch() {
+        versionPrefetcher.setEnabled(backgroundPrefetch);
+        versionPrefetcher.setExtract(prefetchExtract);
+        if (!versionComboBox.isEnabled())
+            return;
+        Version selected = (Version) versionComboBox.getSelectedItem();
+        versionPrefetcher.schedule(selected, VersionManager.requiredAbis(executableSource));
+    }
+
     private class LaunchButtonListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
@@ -673,10 +852,19 @@ public class NostalgiaLauncherDesktop extends JFrame {
                 progressBar.setVisible(true);
                 progressBar.setValue(0);
                 progressBar.setString(localeManager.get("progress.initializing"));
+                versionPrefetcher.cancelOthers(version);
                 File gameDir = new File(InstanceManager.getInstance().resolvePath("game"));
                 if (!gameDir.exists())
                     gameDir.mkdirs();
 
+                String nickname = getNickname();
+                LaunchFingerprint fingerprint = computeLaunchFingerprint(version, gameDir, nickname);
+                if (fingerprint != null && fingerprint.matches(LaunchFingerprint.load(gameDir))
+                        && versionManager.isVersionInstalled(version)) {
+                    return startGame(gameDir);
+                }
+                LaunchFingerprint.invalidate(gameDir);
+
                 if ("COMPILED".equals(executableSource)) {
                     String arch = System.getProperty("os.arch").toLowerCase();
                     String buildFolder = (arch.contains("arm") || arch.contains("aarch64")) ? "build-arm"
@@ -726,18 +914,33 @@ public class NostalgiaLauncherDesktop extends JFrame {
 
                 statusLabel.setText(localeManager.get("status.checkingInstallation"));
                 publish(15);
+                Set<String> requiredAbis = VersionManager.requiredAbis(executableSource);
+                DownloadManager downloads = DownloadManager.forActiveInstance();
                 if (!versionManager.isVersionInstalled(version)) {
                     statusLabel.setText(localeManager.get("status.downloading", version.getName()));
                     progressBar.setString(localeManager.get("progress.downloading"));
                     publish(20);
-                    File apkFile = versionManager.downloadVersion(version, progress -> {
-                        int progressValue = 20 + (int) (progress * 45);
+                    boolean stream = streamingInstall && versionManager.canStreamInstall(version);
+                    DownloadManager.Job job = downloads.enqueue(version, DownloadManager.PRIORITY_INTERACTIVE,
+                            stream, requiredAbis, 0, stream);
+                    File apkFile = downloads.await(job, progress -> {
+                        int progressValue = 20 + (int) (progress * (stream ? 60 : 45));
+                        publish(progressValue);
+                    });
+                    if (!versionManager.isVersionInstalled(version)) {
+                        statusLabel.setText(localeManager.get("status.extracting"));
+                        progressBar.setString(localeManager.get("progress.extracting"));
+                        publish(65);
+                        versionManager.extractVersion(version.getName(), apkFile, requiredAbis, progress -> {
+                            int progressValue = 65 + (int) (progress * 15);
+                            publish(progressValue);
+                        });
+                    }
+                } else {
+                    versionManager.ensureAbis(version, requiredAbis, progress -> {
+                        int progressValue = 20 + (int) (progress * 60);
                         publish(progressValue);
                     });
-                    statusLabel.setText(localeManager.get("status.extracting"));
-                    progressBar.setString(localeManager.get("progress.extracting"));
-                    publish(65);
-                    versionManager.extractVersion(apkFile, gameDir);
                 }
                 statusLabel.setText(localeManager.get("status.preparingDir"));
                 progressBar.setString(localeManager.get("progress.preparing"));
@@ -747,6 +950,13 @@ public class NostalgiaLauncherDesktop extends JFrame {
                 progressBar.setString(localeManager.get("progress.settingUp"));
                 publish(90);
                 saveNickname();
+                LaunchFingerprint staged = computeLaunchFingerprint(version, gameDir, nickname);
+                if (staged != null)
+                    staged.save(gameDir);
+                return startGame(gameDir);
+            }
+
+            private Void startGame(File gameDir) throws Exception {
                 statusLabel.setText(localeManager.get("status.startingGame"));
                 progressBar.setString(localeManager.get("progress.launching"));
                 publish(95);
@@ -806,78 +1016,42 @@ public class NostalgiaLauncherDesktop extends JFrame {
         worker.execute();
     }
 
+    private LaunchFingerprint computeLaunchFingerprint(Version version, File gameDir, String nickname) {
+        File executable;
+        if ("CUSTOM".equals(executableSource) || "COMPILED".equals(executableSource)) {
+            if (customLauncherPath == null || customLauncherPath.isEmpty())
+                return null;
+            executable = new File(customLauncherPath);
+        } else {
+            boolean isWindows = System.getProperty("os.name").toLowerCase().contains("win");
+            executable = new File(gameDir, isWindows ? "ninecraft.exe" : "ninecraft");
+        }
+        long versionStamp = versionManager.getVersionStamp(version);
+        if (!executable.isFile() || versionStamp == 0)
+            return null;
+        return LaunchFingerprint.compute(version.getName(), versionStamp, executableSource, executable, nickname);
+    }
+
     private void downloadLauncherComponents(ProgressCallback callback) throws IOException {
         String osName = System.getProperty("os.name").toLowerCase();
         boolean isWindows = osName.contains("win");
         File gameDir = new File(InstanceManager.getInstance().resolvePath("game"));
         String executableName = isWindows ? "ninecraft.exe" : "ninecraft";
-        File executable = new File(gameDir, executableName);
-        if (executable.exists()) {
-            if (executable.isDirectory())
-                deleteRecursive(executable);
-            else
-                executable.delete();
-        }
         statusLabel.setText(localeManager.get("status.loadingComponents"));
         progressBar.setString(localeManager.get("progress.loadingComponents"));
-        String launcherUrl = isWindows ? DEFAULT_LAUNCHER_URL_WINDOWS : DEFAULT_LAUNCHER_URL_LINUX;
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(launcherUrl);
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    long totalSize = entity.getContentLength();
-                    File tempZipFile = File.createTempFile("launcher_components", ".zip");
-                    try (InputStream inputStream = entity.getContent();
-                            OutputStream outputStream = new FileOutputStream(tempZipFile)) {
-                        byte[] buffer = new byte[4096];
-                        int bytesRead;
-                        long totalBytesRead = 0;
-                        while ((bytesRead = inputStream.read(buffer)) != -1) {
-                            outputStream.write(buffer, 0, bytesRead);
-                            totalBytesRead += bytesRead;
-                            if (callback != null && totalSize > 0)
-                                callback.onProgress((double) totalBytesRead / totalSize);
-                        }
-                    }
-                    try (java.util.zip.ZipInputStream zis = new java.util.zip.ZipInputStream(
-                            Files.newInputStream(tempZipFile.toPath()))) {
-                        java.util.zip.ZipEntry entry;
-                        while ((entry = zis.getNextEntry()) != null) {
-                            if (entry.isDirectory())
-                                continue;
-                            File newFile = new File(gameDir, entry.getName());
-                            File parent = newFile.getParentFile();
-                            if (parent != null && !parent.exists())
-                                parent.mkdirs();
-                            try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                                byte[] buffer = new byte[1024];
-                                int len;
-                                while ((len = zis.read(buffer)) > 0)
-                                    fos.write(buffer, 0, len);
-                            }
-                            if (!isWindows && entry.getName().equals("ninecraft"))
-                                newFile.setExecutable(true);
-                        }
-                    } finally {
-                        tempZipFile.delete();
-                    }
-                }
-            }
-        }
-    }
-
-    private void deleteRecursive(File file) {
-        if (file.isDirectory()) {
-            File[] content = file.listFiles();
-            if (content != null)
-                for (File child : content)
-                    deleteRecursive(child);
+        List<String> launcherUrls = new ArrayList<>(isWindows ? DEFAULT_LAUNCHER_URLS_WINDOWS : DEFAULT_LAUNCHER_URLS_LINUX);
+        String extraMirrors = settings.getProperty("componentsMirrors", "");
+        for (String mirror : extraMirrors.split(",")) {
+            if (!mirror.trim().isEmpty())
+                launcherUrls.add(mirror.trim() + (isWindows ? "/ninecraft-windows.zip" : "/ninecraft-linux.zip"));
         }
-        file.delete();
+        componentsManager.ensureComponents(launcherUrls, gameDir, executableName, callback);
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && "--verify".equals(args[0])) {
+            System.exit(VersionVerifier.runCommandLine(Arrays.copyOfRange(args, 1, args.length)));
+        }
         SwingUtilities.invokeLater(() -> {
             try {
                 if (SystemInfo.isMacOS)
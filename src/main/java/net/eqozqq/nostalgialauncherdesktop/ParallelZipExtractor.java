@@ -0,0 +1,165 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ParallelZipExtractor {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    public interface EntryListener {
+        void onEntryExtracted(ZipEntry entry, int extracted, int total);
+    }
+
+    // Pool threads own a direct buffer that dies with them; tasks run on the caller get a heap buffer instead
+    private static class Worker extends Thread {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Worker(Runnable runnable) {
+            super(runnable, "zip-extract");
+        }
+    }
+
+    private final int threads;
+    private final Object progressLock = new Object();
+    private EntryListener entryListener;
+
+    public ParallelZipExtractor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelZipExtractor(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public void setEntryListener(EntryListener entryListener) {
+        this.entryListener = entryListener;
+    }
+
+    public void extract(File zipFile, File destDir, Predicate<String> filter, ProgressCallback callback) throws IOException {
+        Path destPath = destDir.getCanonicalFile().toPath();
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            List<ZipEntry> entries = new ArrayList<>();
+            List<Path> targets = new ArrayList<>();
+            Set<Path> directories = new TreeSet<>();
+
+            Enumeration<? extends ZipEntry> enumeration = zip.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                if (filter != null && !filter.test(entry.getName())) {
+                    continue;
+                }
+                Path target = destPath.resolve(entry.getName()).normalize();
+                if (!target.startsWith(destPath) || target.equals(destPath)) {
+                    throw new IOException("Entry is outside of the target dir: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    directories.add(target);
+                    continue;
+                }
+                directories.add(target.getParent());
+                entries.add(entry);
+                targets.add(target);
+            }
+
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+            }
+
+            runParallel(zip, entries, targets, callback);
+        }
+    }
+
+    private void runParallel(ZipFile zip, List<ZipEntry> entries, List<Path> targets, ProgressCallback callback) throws IOException {
+        int total = entries.size();
+        if (total == 0) {
+            return;
+        }
+        int poolSize = Math.min(threads, total);
+        int[] extracted = new int[1];
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 4), r -> {
+                    Thread thread = new Worker(r);
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        List<Future<?>> futures = new ArrayList<>(total);
+        try {
+            for (int i = 0; i < total; i++) {
+                ZipEntry entry = entries.get(i);
+                Path target = targets.get(i);
+                futures.add(executor.submit(() -> {
+                    writeEntry(zip, entry, target);
+                    synchronized (progressLock) {
+                        int done = ++extracted[0];
+                        if (entryListener != null) {
+                            entryListener.onEntryExtracted(entry, done, total);
+                        }
+                        if (callback != null) {
+                            callback.onProgress((double) done / total);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeEntry(ZipFile zip, ZipEntry entry, Path target) throws IOException {
+        Thread current = Thread.currentThread();
+        ByteBuffer buffer = current instanceof Worker ? ((Worker) current).buffer : ByteBuffer.allocate(BUFFER_SIZE);
+        Files.deleteIfExists(target);
+        try (InputStream in = zip.getInputStream(entry);
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,684 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SegmentedDownloader {
+    public static final String PART_SUFFIX = ".part";
+
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+    private static final long CHECKPOINT_INTERVAL = 2 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SEGMENT_ATTEMPTS = 3;
+    private static final int PROBE_TIMEOUT_MS = 5000;
+    private static final int STALL_TIMEOUT_MS = 10000;
+    private static final long STALL_WINDOW_NANOS = 5_000_000_000L;
+    private static final long MIN_MIRROR_BYTES_PER_SECOND = 32 * 1024;
+    private static final RequestConfig PROBE_CONFIG = RequestConfig.custom()
+            .setConnectTimeout(PROBE_TIMEOUT_MS)
+            .setConnectionRequestTimeout(PROBE_TIMEOUT_MS)
+            .setSocketTimeout(PROBE_TIMEOUT_MS)
+            .build();
+    static final RequestConfig FAILOVER_CONFIG = RequestConfig.custom()
+            .setConnectTimeout(STALL_TIMEOUT_MS)
+            .setConnectionRequestTimeout(STALL_TIMEOUT_MS)
+            .setSocketTimeout(STALL_TIMEOUT_MS)
+            .build();
+
+    private static final Gson GSON = new Gson();
+
+    private final HttpManager httpManager;
+    private final int connections;
+    private final RateLimiter rateLimiter;
+
+    public SegmentedDownloader(HttpManager httpManager, int connections, RateLimiter rateLimiter) {
+        this.httpManager = httpManager;
+        this.connections = Math.max(1, connections);
+        this.rateLimiter = rateLimiter;
+    }
+
+    public static File getPartFile(File outputFile) {
+        return new File(outputFile.getPath() + PART_SUFFIX);
+    }
+
+    public static boolean isIncomplete(File outputFile) {
+        return getPartFile(outputFile).exists();
+    }
+
+    public String download(List<String> urls, File outputFile, ProgressCallback callback) throws IOException {
+        List<String> mirrors = MirrorHealth.distinct(urls);
+        if (mirrors.isEmpty()) {
+            throw new IOException("versionManager.error.missingUrl:" + outputFile.getName());
+        }
+        File partFile = getPartFile(outputFile);
+        PartState state = loadState(partFile, mirrors.get(0), outputFile);
+        MessageDigest digest = ComponentsManager.newSha256();
+
+        try {
+            if (state == null) {
+                state = start(mirrors, outputFile, partFile, digest, callback);
+                if (state == null) {
+                    Files.deleteIfExists(partFile.toPath());
+                    return ComponentsManager.toHex(digest.digest());
+                }
+            }
+            if (state.mirrors == null) {
+                state.mirrors = mirrors;
+            }
+
+            try {
+                downloadSegments(outputFile, partFile, state, digest, callback);
+            } catch (RangeIgnoredException e) {
+                Files.deleteIfExists(partFile.toPath());
+                digest.reset();
+                state = start(mirrors, outputFile, partFile, digest, callback);
+                if (state != null) {
+                    downloadSegments(outputFile, partFile, state, digest, callback);
+                }
+            }
+        } finally {
+            MirrorHealth.forActiveInstance().flush();
+        }
+        Files.deleteIfExists(partFile.toPath());
+        return ComponentsManager.toHex(digest.digest());
+    }
+
+    private PartState start(List<String> mirrors, File outputFile, File partFile, MessageDigest digest,
+                            ProgressCallback callback) throws IOException {
+        MirrorHealth health = MirrorHealth.forActiveInstance();
+        if (mirrors.size() > 1) {
+            PartState state = probeMirrors(mirrors, outputFile, partFile);
+            if (state != null) {
+                return state;
+            }
+        }
+        IOException lastError = null;
+        for (String mirror : health.rank(mirrors)) {
+            try {
+                PartState state = probe(mirror, outputFile, partFile, digest, callback);
+                httpManager.recordSuccess();
+                return state;
+            } catch (HttpManager.OfflineException e) {
+                throw e;
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                health.recordFailure(mirror);
+                digest.reset();
+                lastError = e;
+            }
+        }
+        httpManager.recordFailure(lastError);
+        throw lastError;
+    }
+
+    private PartState probeMirrors(List<String> mirrors, File outputFile, File partFile) throws IOException {
+        MirrorHealth health = MirrorHealth.forActiveInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(mirrors.size(), r -> {
+            Thread thread = new Thread(r, "mirror-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, Long> lengths = new HashMap<>();
+        Map<String, String> validators = new HashMap<>();
+        try {
+            Map<String, Future<MirrorProbe>> futures = new LinkedHashMap<>();
+            for (String mirror : mirrors) {
+                futures.put(mirror, executor.submit(() -> probeMirror(mirror)));
+            }
+            for (Map.Entry<String, Future<MirrorProbe>> entry : futures.entrySet()) {
+                try {
+                    MirrorProbe result = entry.getValue().get();
+                    if (result != null) {
+                        lengths.put(entry.getKey(), result.length);
+                        validators.put(entry.getKey(), result.validator);
+                    }
+                } catch (ExecutionException e) {
+                    health.recordFailure(entry.getKey());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("versionManager.error.downloadInterrupted:" + outputFile);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (lengths.isEmpty()) {
+            return null;
+        }
+
+        List<String> ranked = health.rank(new ArrayList<>(lengths.keySet()));
+        long length = lengths.get(ranked.get(0));
+        ranked.removeIf(mirror -> lengths.get(mirror) != length);
+        validators.keySet().retainAll(ranked);
+
+        PartState state = PartState.create(mirrors.get(0), length, validators, segmentCount(length), ranked);
+        try (RandomAccessFile raf = new RandomAccessFile(outputFile, "rw")) {
+            raf.setLength(length);
+        }
+        saveState(partFile, state);
+        return state;
+    }
+
+    private MirrorProbe probeMirror(String mirror) throws IOException {
+        HttpGet request = new HttpGet(mirror);
+        request.setConfig(PROBE_CONFIG);
+        request.setHeader("Range", "bytes=0-0");
+        long started = System.nanoTime();
+        try (CloseableHttpResponse response = httpManager.executeUncounted(request)) {
+            MirrorHealth.forActiveInstance().recordProbe(mirror, (System.nanoTime() - started) / 1_000_000);
+            long length = parseTotalLength(response.getFirstHeader("Content-Range"));
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || length <= 0) {
+                return null;
+            }
+            return new MirrorProbe(length, validatorOf(response));
+        }
+    }
+
+    private PartState probe(String url, File outputFile, File partFile, MessageDigest digest,
+                            ProgressCallback callback) throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Range", "bytes=0-0");
+        try (CloseableHttpResponse response = httpManager.executeUncounted(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            long length = parseTotalLength(response.getFirstHeader("Content-Range"));
+
+            if (status == HttpStatus.SC_PARTIAL_CONTENT && length > 0) {
+                PartState state = PartState.create(url, length, Collections.singletonMap(url, validatorOf(response)),
+                        segmentCount(length), Collections.singletonList(url));
+                try (RandomAccessFile raf = new RandomAccessFile(outputFile, "rw")) {
+                    raf.setLength(length);
+                }
+                saveState(partFile, state);
+                return state;
+            }
+
+            if (status >= 400) {
+                throw new IOException("versionManager.error.downloadFailed:" + url + " (HTTP " + status + ")");
+            }
+
+            saveState(partFile, PartState.singleStream(url));
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("versionManager.error.downloadFailed:" + outputFile.getAbsolutePath());
+            }
+            long started = System.nanoTime();
+            downloadSingleStream(entity, outputFile, digest, callback);
+            MirrorHealth.forActiveInstance().recordTransfer(url, outputFile.length(), System.nanoTime() - started);
+            return null;
+        }
+    }
+
+    private void downloadSingleStream(HttpEntity entity, File outputFile, MessageDigest digest,
+                                      ProgressCallback callback) throws IOException {
+        long totalSize = entity.getContentLength();
+        try (InputStream inputStream = entity.getContent();
+             FileChannel channel = FileChannel.open(outputFile.toPath(), java.nio.file.StandardOpenOption.CREATE,
+                     java.nio.file.StandardOpenOption.WRITE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            int bytesRead;
+            long totalBytesRead = 0;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("versionManager.error.downloadInterrupted:" + outputFile);
+                }
+                throttle(bytesRead);
+                wrapped.clear().limit(bytesRead);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                digest.update(buffer, 0, bytesRead);
+                totalBytesRead += bytesRead;
+                if (callback != null && totalSize > 0) {
+                    callback.onProgress((double) totalBytesRead / totalSize);
+                }
+            }
+        }
+    }
+
+    private void downloadSegments(File outputFile, File partFile, PartState state, MessageDigest digest,
+                                  ProgressCallback callback) throws IOException {
+        AtomicLong completed = new AtomicLong(state.completedBytes());
+        List<Segment> pending = new ArrayList<>();
+        for (Segment segment : state.segments) {
+            if (segment.position < segment.end) {
+                pending.add(segment);
+            }
+        }
+        PrefixHasher hasher = new PrefixHasher(state, digest);
+        Map<String, AtomicLong> mirrorBytes = new ConcurrentHashMap<>();
+        if (pending.isEmpty()) {
+            try (FileChannel channel = FileChannel.open(outputFile.toPath(), java.nio.file.StandardOpenOption.READ)) {
+                hasher.advance(channel, true);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(connections, pending.size()), r -> {
+            Thread thread = new Thread(r, "segment-download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (RandomAccessFile raf = new RandomAccessFile(outputFile, "rw")) {
+            FileChannel channel = raf.getChannel();
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Segment segment : pending) {
+                futures.add(executor.submit(() -> {
+                    fetchSegment(segment, state, channel, partFile, completed, hasher, mirrorBytes, callback);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("versionManager.error.downloadInterrupted:" + state.url, e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+            channel.force(false);
+            hasher.advance(channel, true);
+        } finally {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (state) {
+                if (partFile.exists()) {
+                    saveState(partFile, state);
+                }
+            }
+        }
+    }
+
+    private void fetchSegment(Segment segment, PartState state, FileChannel channel, File partFile,
+                              AtomicLong completed, PrefixHasher hasher, Map<String, AtomicLong> mirrorBytes,
+                              ProgressCallback callback) throws IOException {
+        MirrorHealth health = MirrorHealth.forActiveInstance();
+        boolean failover = state.mirrors.size() > 1;
+        Set<String> failedMirrors = new HashSet<>();
+        IOException lastError = null;
+        int maxAttempts = MAX_SEGMENT_ATTEMPTS * state.mirrors.size();
+        for (int attempt = 0; attempt < maxAttempts && segment.position < segment.end; attempt++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IOException("versionManager.error.downloadInterrupted:" + state.url);
+            }
+            String mirror = pickMirror(state.mirrors, failedMirrors);
+            HttpGet request = new HttpGet(mirror);
+            request.setHeader("Range", "bytes=" + segment.position + "-" + (segment.end - 1));
+            String validator = state.validatorFor(mirror);
+            if (validator != null) {
+                request.setHeader("If-Range", validator);
+            }
+            if (failover) {
+                request.setConfig(FAILOVER_CONFIG);
+            }
+            long started = System.nanoTime();
+            long transferred = 0;
+            StallMonitor stallMonitor = null;
+            if (failover) {
+                List<String> alternatives = new ArrayList<>(state.mirrors);
+                alternatives.removeAll(failedMirrors);
+                alternatives.remove(mirror);
+                stallMonitor = new StallMonitor(mirror, alternatives,
+                        mirrorBytes.computeIfAbsent(mirror, key -> new AtomicLong()));
+            }
+            try (CloseableHttpResponse response = httpManager.executeUncounted(request)) {
+                int status = response.getStatusLine().getStatusCode();
+                if (status == HttpStatus.SC_OK) {
+                    // Every mirror in the part state answered a range probe, so a full reply here means
+                    // If-Range no longer matches and the partial data belongs to an older file
+                    throw new RangeIgnoredException();
+                }
+                if (status != HttpStatus.SC_PARTIAL_CONTENT || response.getEntity() == null) {
+                    throw new IOException("versionManager.error.downloadFailed:" + mirror + " (HTTP " + status + ")");
+                }
+                try (InputStream inputStream = response.getEntity().getContent()) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+                    long sinceCheckpoint = 0;
+                    int bytesRead;
+                    while (segment.position < segment.end && (bytesRead = inputStream.read(buffer,
+                            0, (int) Math.min(buffer.length, segment.end - segment.position))) != -1) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new IOException("versionManager.error.downloadInterrupted:" + state.url);
+                        }
+                        long throttleStarted = System.nanoTime();
+                        throttle(bytesRead);
+                        if (stallMonitor != null) {
+                            stallMonitor.exclude(System.nanoTime() - throttleStarted);
+                        }
+                        wrapped.clear().limit(bytesRead);
+                        long writePosition = segment.position;
+                        while (wrapped.hasRemaining()) {
+                            writePosition += channel.write(wrapped, writePosition);
+                        }
+                        segment.position += bytesRead;
+                        transferred += bytesRead;
+                        hasher.advance(channel, false);
+                        sinceCheckpoint += bytesRead;
+                        long done = completed.addAndGet(bytesRead);
+                        if (callback != null) {
+                            callback.onProgress((double) done / state.length);
+                        }
+                        if (sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                            sinceCheckpoint = 0;
+                            checkpoint(channel, partFile, state);
+                        }
+                        if (stallMonitor != null) {
+                            stallMonitor.update(bytesRead);
+                        }
+                    }
+                }
+                health.recordTransfer(mirror, transferred, System.nanoTime() - started);
+                httpManager.recordSuccess();
+                checkpoint(channel, partFile, state);
+                lastError = null;
+            } catch (RangeIgnoredException | HttpManager.OfflineException e) {
+                throw e;
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                lastError = e;
+                health.recordFailure(mirror);
+                failedMirrors.add(mirror);
+                checkpoint(channel, partFile, state);
+            }
+        }
+        if (segment.position < segment.end) {
+            if (lastError == null) {
+                throw new IOException("versionManager.error.downloadFailed:" + state.url);
+            }
+            httpManager.recordFailure(lastError);
+            throw lastError;
+        }
+    }
+
+    private static String pickMirror(List<String> mirrors, Set<String> failedMirrors) {
+        List<String> ranked = MirrorHealth.forActiveInstance().rank(mirrors);
+        for (String mirror : ranked) {
+            if (!failedMirrors.contains(mirror)) {
+                return mirror;
+            }
+        }
+        failedMirrors.clear();
+        return ranked.get(0);
+    }
+
+    private void throttle(int bytes) throws InterruptedIOException {
+        if (rateLimiter != null) {
+            rateLimiter.acquire(bytes);
+        }
+    }
+
+    private void checkpoint(FileChannel channel, File partFile, PartState state) throws IOException {
+        channel.force(false);
+        synchronized (state) {
+            saveState(partFile, state);
+        }
+    }
+
+    private int segmentCount(long length) {
+        long bySize = Math.max(1, length / MIN_SEGMENT_SIZE);
+        return (int) Math.min(connections, bySize);
+    }
+
+    private static long parseTotalLength(Header contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        String value = contentRange.getValue();
+        int slash = value.lastIndexOf('/');
+        if (slash < 0 || slash == value.length() - 1) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String validatorOf(CloseableHttpResponse response) {
+        Header etag = response.getFirstHeader("ETag");
+        if (etag != null && !etag.getValue().startsWith("W/")) {
+            return etag.getValue();
+        }
+        Header lastModified = response.getFirstHeader("Last-Modified");
+        return lastModified != null ? lastModified.getValue() : null;
+    }
+
+    private static PartState loadState(File partFile, String url, File outputFile) {
+        if (!partFile.exists()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(partFile.toPath(), StandardCharsets.UTF_8)) {
+            PartState state = GSON.fromJson(reader, PartState.class);
+            if (state == null || !url.equals(state.url) || state.length <= 0 || state.segments == null
+                    || state.segments.isEmpty() || outputFile.length() != state.length) {
+                return null;
+            }
+            return state;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static void saveState(File partFile, PartState state) throws IOException {
+        File tempFile = new File(partFile.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(state, writer);
+        }
+        try {
+            Files.move(tempFile.toPath(), partFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), partFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static class PartState {
+        String url;
+        long length;
+        String validator;
+        Map<String, String> validators;
+        List<String> mirrors;
+        List<Segment> segments;
+
+        static PartState create(String url, long length, Map<String, String> validators, int count,
+                                List<String> mirrors) {
+            PartState state = new PartState();
+            state.url = url;
+            state.length = length;
+            state.validators = new HashMap<>(validators);
+            state.mirrors = new ArrayList<>(mirrors);
+            state.segments = new ArrayList<>();
+            long segmentSize = length / count;
+            long start = 0;
+            for (int i = 0; i < count; i++) {
+                long end = (i == count - 1) ? length : start + segmentSize;
+                Segment segment = new Segment();
+                segment.start = start;
+                segment.position = start;
+                segment.end = end;
+                state.segments.add(segment);
+                start = end;
+            }
+            return state;
+        }
+
+        static PartState singleStream(String url) {
+            PartState state = new PartState();
+            state.url = url;
+            state.length = -1;
+            state.segments = new ArrayList<>();
+            return state;
+        }
+
+        String validatorFor(String mirror) {
+            if (validators != null) {
+                return validators.get(mirror);
+            }
+            return mirror.equals(url) ? validator : null;
+        }
+
+        long completedBytes() {
+            long total = 0;
+            for (Segment segment : segments) {
+                total += segment.position - segment.start;
+            }
+            return total;
+        }
+    }
+
+    private static class MirrorProbe {
+        final long length;
+        final String validator;
+
+        MirrorProbe(long length, String validator) {
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+
+    private static class Segment {
+        long start;
+        volatile long position;
+        long end;
+    }
+
+    private static class PrefixHasher {
+        private final PartState state;
+        private final MessageDigest digest;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long hashedPosition;
+
+        PrefixHasher(PartState state, MessageDigest digest) {
+            this.state = state;
+            this.digest = digest;
+        }
+
+        void advance(FileChannel channel, boolean wait) throws IOException {
+            if (wait) {
+                lock.lock();
+            } else if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                long boundary = contiguousEnd();
+                while (hashedPosition < boundary) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), boundary - hashedPosition));
+                    int read = channel.read(buffer, hashedPosition);
+                    if (read <= 0) {
+                        break;
+                    }
+                    digest.update(buffer.array(), 0, read);
+                    hashedPosition += read;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long contiguousEnd() {
+            for (Segment segment : state.segments) {
+                if (segment.position < segment.end) {
+                    return segment.position;
+                }
+            }
+            return state.length;
+        }
+    }
+
+    // Rates are summed over every connection sharing mirrorBytes; the last usable mirror is never dropped
+    static class StallMonitor {
+        private final String mirror;
+        private final List<String> alternatives;
+        private final AtomicLong mirrorBytes;
+        private long windowStart = System.nanoTime();
+        private long windowBase;
+
+        StallMonitor(String mirror, List<String> alternatives) {
+            this(mirror, alternatives, new AtomicLong());
+        }
+
+        StallMonitor(String mirror, List<String> alternatives, AtomicLong mirrorBytes) {
+            this.mirror = mirror;
+            this.alternatives = alternatives;
+            this.mirrorBytes = mirrorBytes;
+            this.windowBase = mirrorBytes.get();
+        }
+
+        void exclude(long nanos) {
+            windowStart += nanos;
+        }
+
+        void update(int bytes) throws IOException {
+            long total = mirrorBytes.addAndGet(bytes);
+            long now = System.nanoTime();
+            if (now - windowStart >= STALL_WINDOW_NANOS) {
+                double rate = (total - windowBase) * 1e9 / (now - windowStart);
+                if (rate < MIN_MIRROR_BYTES_PER_SECOND && !alternatives.isEmpty()
+                        && MirrorHealth.forActiveInstance().hasFasterMirror(alternatives, rate)) {
+                    throw new IOException("versionManager.error.mirrorStalled:" + mirror);
+                }
+                windowStart = now;
+                windowBase = total;
+            }
+        }
+    }
+
+    private static class RangeIgnoredException extends IOException {
+        RangeIgnoredException() {
+            super("Server ignored the Range header");
+        }
+    }
+}
@@ -11,7 +11,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
@@ -946,15 +948,13 @@ public class SettingsPanel extends JPanel {
         SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
             @Override
             protected String doInBackground() throws Exception {
-                URL url = new URL(LAST_VERSION);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+                HttpGet request = new HttpGet(LAST_VERSION);
+                request.setConfig(RequestConfig.custom().setConnectTimeout(5000).setConnectionRequestTimeout(5000)
+                        .setSocketTimeout(5000).build());
+                try (CloseableHttpResponse response = HttpManager.getInstance().execute(request);
+                        BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getEntity().getContent()))) {
                     return reader.readLine().trim();
-                } finally {
-                    connection.disconnect();
                 }
             }
 
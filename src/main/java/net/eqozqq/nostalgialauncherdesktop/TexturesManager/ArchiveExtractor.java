@@ -6,55 +6,44 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import com.github.junrar.Archive;
 import com.github.junrar.rarfile.FileHeader;
+import net.eqozqq.nostalgialauncherdesktop.ParallelZipExtractor;
 
 public class ArchiveExtractor {
 
-    public static void extract(File archiveFile, File destDir) throws IOException {
+    public static List<String> extract(File archiveFile, File destDir) throws IOException {
         String fileName = archiveFile.getName().toLowerCase();
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
         if (fileName.endsWith(".zip")) {
-            extractZip(archiveFile, destDir);
+            extractZip(archiveFile, destDir, written);
         } else if (fileName.endsWith(".rar")) {
-            extractRar(archiveFile, destDir);
+            extractRar(archiveFile, destDir, written);
         } else if (fileName.endsWith(".tar")) {
-            extractTar(archiveFile, destDir);
+            extractTar(archiveFile, destDir, written);
         } else if (fileName.endsWith(".7z")) {
-            extract7z(archiveFile, destDir);
+            extract7z(archiveFile, destDir, written);
         } else {
             throw new IOException("Unsupported archive format.");
         }
+        return written;
     }
 
-    private static void extractZip(File zipFile, File destDir) throws IOException {
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
-            ZipEntry zipEntry = zis.getNextEntry();
-            while (zipEntry != null) {
-                File newFile = newFile(destDir, zipEntry.getName());
-                if (zipEntry.isDirectory()) {
-                    newFile.mkdirs();
-                } else {
-                    new File(newFile.getParent()).mkdirs();
-                    try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                        byte[] buffer = new byte[1024];
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
-                }
-                zipEntry = zis.getNextEntry();
-            }
-        }
+    private static void extractZip(File zipFile, File destDir, List<String> written) throws IOException {
+        ParallelZipExtractor extractor = new ParallelZipExtractor();
+        extractor.setEntryListener((entry, extracted, total) -> written.add(entry.getName()));
+        extractor.extract(zipFile, destDir, null, null);
     }
     
-    private static void extractRar(File rarFile, File destDir) throws IOException {
+    private static void extractRar(File rarFile, File destDir, List<String> written) throws IOException {
         try (Archive archive = new Archive(rarFile)) {
             FileHeader fh;
             while ((fh = archive.nextFileHeader()) != null) {
@@ -63,9 +52,11 @@ public class ArchiveExtractor {
                     newFile.mkdirs();
                 } else {
                     new File(newFile.getParent()).mkdirs();
+                    Files.deleteIfExists(newFile.toPath());
                     try (FileOutputStream fos = new FileOutputStream(newFile)) {
                         archive.extractFile(fh, fos);
                     }
+                    written.add(fh.getFileNameString().replace('\\', '/'));
                 }
             }
         } catch (Exception e) {
@@ -73,7 +64,7 @@ public class ArchiveExtractor {
         }
     }
 
-    private static void extractTar(File tarFile, File destDir) throws IOException {
+    private static void extractTar(File tarFile, File destDir, List<String> written) throws IOException {
         try (TarArchiveInputStream tis = new TarArchiveInputStream(new FileInputStream(tarFile))) {
             TarArchiveEntry entry;
             while ((entry = (TarArchiveEntry) tis.getNextEntry()) != null) {
@@ -82,6 +73,7 @@ public class ArchiveExtractor {
                     newFile.mkdirs();
                 } else {
                     new File(newFile.getParent()).mkdirs();
+                    Files.deleteIfExists(newFile.toPath());
                     try (FileOutputStream fos = new FileOutputStream(newFile)) {
                         byte[] buffer = new byte[1024];
                         int len;
@@ -89,12 +81,13 @@ public class ArchiveExtractor {
                             fos.write(buffer, 0, len);
                         }
                     }
+                    written.add(entry.getName());
                 }
             }
         }
     }
 
-    private static void extract7z(File sevenZFile, File destDir) throws IOException {
+    private static void extract7z(File sevenZFile, File destDir, List<String> written) throws IOException {
         try (SevenZFile szf = new SevenZFile(sevenZFile)) {
             SevenZArchiveEntry entry;
             while ((entry = szf.getNextEntry()) != null) {
@@ -103,37 +96,24 @@ public class ArchiveExtractor {
                     newFile.mkdirs();
                 } else {
                     new File(newFile.getParent()).mkdirs();
+                    Files.deleteIfExists(newFile.toPath());
                     try (FileOutputStream fos = new FileOutputStream(newFile)) {
                         byte[] content = new byte[(int) entry.getSize()];
                         szf.read(content, 0, content.length);
                         fos.write(content);
                     }
+                    written.add(entry.getName());
                 }
             }
         }
     }
 
-    public static void extractDefaultTextures(File apkFile, File destDir) throws IOException {
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(apkFile))) {
-            ZipEntry zipEntry;
-            while ((zipEntry = zis.getNextEntry()) != null) {
-                if (zipEntry.getName().startsWith("assets/") || zipEntry.getName().startsWith("res/")) {
-                    File newFile = newFile(destDir, zipEntry.getName());
-                    if (zipEntry.isDirectory()) {
-                        newFile.mkdirs();
-                    } else {
-                        new File(newFile.getParent()).mkdirs();
-                        try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                            byte[] buffer = new byte[1024];
-                            int len;
-                            while ((len = zis.read(buffer)) > 0) {
-                                fos.write(buffer, 0, len);
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    public static List<String> extractDefaultTextures(File apkFile, File destDir) throws IOException {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        ParallelZipExtractor extractor = new ParallelZipExtractor();
+        extractor.setEntryListener((entry, extracted, total) -> written.add(entry.getName()));
+        extractor.extract(apkFile, destDir, name -> name.startsWith("assets/") || name.startsWith("res/"), null);
+        return written;
     }
 
     private static File newFile(File destinationDir, String zipEntryName) throws IOException {
@@ -8,6 +8,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 
+import net.eqozqq.nostalgialauncherdesktop.DownloadManager;
 import net.eqozqq.nostalgialauncherdesktop.LocaleManager;
 import net.eqozqq.nostalgialauncherdesktop.StyledDialog;
 import net.eqozqq.nostalgialauncherdesktop.Version;
@@ -209,7 +210,8 @@ public class TexturesManagerPanel extends JPanel {
         try {
             File archiveFile = new File(path);
             File versionDir = new File(InstanceManager.getInstance().resolvePath("versions/" + selectedVersion));
-            ArchiveExtractor.extract(archiveFile, versionDir);
+            List<String> written = ArchiveExtractor.extract(archiveFile, versionDir);
+            VersionManager.recordOverlays(selectedVersion, written);
             StyledDialog.showMessage(this, localeManager.get("info.texturesInstalled"),
                     localeManager.get("dialog.success.title"), JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -250,15 +252,18 @@ public class TexturesManagerPanel extends JPanel {
             SwingWorker<Void, Integer> worker = new SwingWorker<Void, Integer>() {
                 @Override
                 protected Void doInBackground() throws Exception {
-                    File apkFile = versionManager.downloadVersion(targetVersion, progress -> {
+                    DownloadManager downloads = DownloadManager.forActiveInstance();
+                    DownloadManager.Job job = downloads.enqueue(targetVersion, DownloadManager.PRIORITY_INTERACTIVE);
+                    File apkFile = downloads.await(job, progress -> {
                         publish((int) (progress * 100));
                     });
 
                     progressMonitor.setNote(localeManager.get("progress.extractingTextures"));
                     progressMonitor.setProgress(0);
 
-                    ArchiveExtractor.extractDefaultTextures(apkFile,
+                    List<String> restored = ArchiveExtractor.extractDefaultTextures(apkFile,
                             new File(InstanceManager.getInstance().resolvePath("versions/" + selectedVersion)));
+                    VersionManager.clearOverlays(selectedVersion, restored);
                     return null;
                 }
 
@@ -309,7 +314,8 @@ public class TexturesManagerPanel extends JPanel {
             if (directories != null) {
                 Arrays.sort(directories);
                 for (String dirName : directories) {
-                    if (!dirName.equals("_LevelCache") && !dirName.equals("default_textures")) {
+                    if (!dirName.startsWith(".") && !dirName.equals("_LevelCache")
+                            && !dirName.equals("default_textures")) {
                         listModel.addElement(dirName);
                     }
                 }
@@ -1,8 +1,14 @@
 package net.eqozqq.nostalgialauncherdesktop;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Version {
     private String name;
     private String url;
+    private List<String> mirrors;
+    private String sha256;
+    private long size;
 
     public Version() {
     }
@@ -20,6 +26,40 @@ public class Version {
         return url;
     }
 
+    public List<String> getUrls() {
+        List<String> urls = new ArrayList<>();
+        urls.add(url);
+        if (mirrors != null) {
+            urls.addAll(mirrors);
+        }
+        return MirrorHealth.distinct(urls);
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Version)) {
+            return false;
+        }
+        Version other = (Version) o;
+        return name != null ? name.equals(other.name) : other.name == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return name != null ? name.hashCode() : 0;
+    }
+
     @Override
     public String toString() {
         return name;
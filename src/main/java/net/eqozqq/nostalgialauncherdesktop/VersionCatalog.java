@@ -0,0 +1,131 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class VersionCatalog {
+    private final List<Version> versions;
+    private final Map<String, Integer> byName;
+    private final String[] keys;
+    private final Integer[] sortedByKey;
+
+    private VersionCatalog(List<Version> versions) {
+        this.versions = Collections.unmodifiableList(versions);
+        this.byName = new HashMap<>(versions.size() * 2);
+        this.keys = new String[versions.size()];
+        this.sortedByKey = new Integer[versions.size()];
+        for (int i = 0; i < versions.size(); i++) {
+            byName.put(versions.get(i).getName(), i);
+            keys[i] = normalize(versions.get(i).getName());
+            sortedByKey[i] = i;
+        }
+        Arrays.sort(sortedByKey, Comparator.comparing(i -> keys[i]));
+    }
+
+    public static VersionCatalog merge(List<Version> remote, List<Version> custom) {
+        Map<String, Version> merged = new LinkedHashMap<>();
+        for (Version version : remote) {
+            if (version != null && version.getName() != null) {
+                merged.putIfAbsent(version.getName(), version);
+            }
+        }
+        for (Version version : custom) {
+            if (version != null && version.getName() != null) {
+                merged.put(version.getName(), version);
+            }
+        }
+        return new VersionCatalog(new ArrayList<>(merged.values()));
+    }
+
+    public VersionCatalog filter(Predicate<Version> predicate) {
+        List<Version> filtered = new ArrayList<>();
+        for (Version version : versions) {
+            if (predicate.test(version)) {
+                filtered.add(version);
+            }
+        }
+        return new VersionCatalog(filtered);
+    }
+
+    public List<Version> getVersions() {
+        return versions;
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    public Version get(int index) {
+        return versions.get(index);
+    }
+
+    public Version get(String name) {
+        Integer index = name != null ? byName.get(name) : null;
+        return index != null ? versions.get(index) : null;
+    }
+
+    public int[] allIndices() {
+        int[] indices = new int[versions.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    public int[] search(String query) {
+        return search(query, null);
+    }
+
+    public int[] search(String query, int[] within) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return allIndices();
+        }
+
+        boolean[] prefix = new boolean[versions.size()];
+        int low = lowerBound(needle);
+        for (int i = low; i < sortedByKey.length && keys[sortedByKey[i]].startsWith(needle); i++) {
+            prefix[sortedByKey[i]] = true;
+        }
+
+        int[] candidates = within != null ? within : allIndices();
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int index : candidates) {
+            if (prefix[index]) {
+                result[count++] = index;
+            }
+        }
+        for (int index : candidates) {
+            if (!prefix[index] && keys[index].contains(needle)) {
+                result[count++] = index;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = sortedByKey.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[sortedByKey[mid]].compareTo(needle) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase();
+    }
+}
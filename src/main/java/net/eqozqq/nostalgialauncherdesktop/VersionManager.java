@@ -2,146 +2,279 @@ package net.eqozqq.nostalgialauncherdesktop;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Reader;
 import java.io.Writer;
-import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
 
 public class VersionManager {
+    public static final String INSTALLED_MARKER = ".installed";
     private static final String VERSIONS_CACHE_DIR = "cache" + File.separator + "versions";
     private static final String GAME_DIR = "game";
     private static final String VERSIONS_DIR = "versions";
     private static final String CUSTOM_VERSIONS_FILE = "custom_versions.json";
     private static final String VERSIONS_LIST_CACHE_FILE = "cache" + File.separator + "versions_list.json";
-
-    private Set<String> installedVersions;
+    private static final String VERSIONS_LIST_META_FILE = "cache" + File.separator + "versions_list.meta.json";
+    private static final String REVISION_FILE = ".revision";
+    private static final String STAGING_DIR = ".staging";
+    private static final String RETIRED_SUFFIX = "-old";
+    private static final long STALE_STAGING_MS = 10 * 60 * 1000;
+    private static final String STAGED_MANIFEST_FILE = ".staged_manifest.json";
+    private static final String[] GAME_SUBDIRS = { "assets", "lib", "res" };
+    private static final int DOWNLOAD_CONNECTIONS = 4;
+    private static final String STREAM_SUFFIX = ".stream";
+    private static final String LIB_PREFIX = "lib/";
+    private static final int STREAM_PIPE_SIZE = 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final Gson GSON = new Gson();
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final TypeAdapter<Version> VERSION_ADAPTER = GSON.getAdapter(Version.class);
 
     public VersionManager() {
-        updateInstalledVersions();
+    }
+
+    private static class CatalogMetadata {
+        String source;
+        String etag;
+        String lastModified;
+        String sha256;
     }
 
     public List<Version> loadVersions(String source) throws IOException {
+        VersionCatalog catalog = revalidateVersions(source);
+        return (catalog != null ? catalog : loadCachedVersions(source)).getVersions();
+    }
+
+    public VersionCatalog loadCachedVersions(String source) {
         List<Version> versions = new ArrayList<>();
-        boolean isOffline = false;
+        if (isRemoteSource(source)) {
+            CatalogMetadata metadata = loadCatalogMetadata();
+            if (metadata == null || source.equals(metadata.source)) {
+                versions.addAll(loadVersionsCache());
+            }
+        } else if (source != null && !source.isEmpty()) {
+            try {
+                versions.addAll(loadLocalVersions(source));
+            } catch (Exception e) {
+                System.err.println("Failed to load versions from source: " + e.getMessage());
+            }
+        }
+        return VersionCatalog.merge(versions, loadCustomVersions());
+    }
 
+    public VersionCatalog revalidateVersions(String source) {
+        if (!isRemoteSource(source)) {
+            return null;
+        }
         try {
-            if (source != null && !source.isEmpty()) {
-                if (source.startsWith("http://") || source.startsWith("https://")) {
-                    try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                        HttpGet request = new HttpGet(source);
-                        try (CloseableHttpResponse response = httpClient.execute(request)) {
-                            HttpEntity entity = response.getEntity();
-                            if (entity != null) {
-                                String jsonString = org.apache.commons.io.IOUtils.toString(entity.getContent(), "UTF-8");
-                                Gson gson = new Gson();
-                                Type listType = new TypeToken<List<Version>>(){}.getType();
-                                List<Version> networkVersions = gson.fromJson(jsonString, listType);
-                                versions.addAll(networkVersions);
-                                saveVersionsCache(networkVersions);
-                            }
-                        }
-                    }
-                } else {
-                    File file = new File(source);
-                    if (file.exists() && file.isFile()) {
-                        Gson gson = new Gson();
-                        Type listType = new TypeToken<List<Version>>(){}.getType();
-                        versions.addAll(gson.fromJson(new InputStreamReader(Files.newInputStream(file.toPath())), listType));
-                    } else {
-                        throw new IOException("versionManager.error.fileNotFound:" + source);
-                    }
-                }
+            List<Version> networkVersions = fetchVersions(source);
+            if (networkVersions == null) {
+                return null;
             }
+            return VersionCatalog.merge(networkVersions, loadCustomVersions());
         } catch (Exception e) {
             System.err.println("Failed to load versions from source, switching to offline cache: " + e.getMessage());
-            isOffline = true;
         }
 
-        if (versions.isEmpty()) {
-            versions.addAll(loadVersionsCache());
-        }
+        return VersionCatalog.merge(loadVersionsCache(), loadCustomVersions())
+                .filter(v -> isVersionInstalled(v) || isApkCached(v));
+    }
 
-        versions.addAll(loadCustomVersions());
+    private static boolean isRemoteSource(String source) {
+        return source != null && (source.startsWith("http://") || source.startsWith("https://"));
+    }
 
-        if (isOffline) {
-            versions = versions.stream()
-                .filter(v -> isVersionInstalled(v) || isApkCached(v))
-                .collect(Collectors.toList());
+    private List<Version> loadLocalVersions(String source) throws IOException {
+        File file = new File(source);
+        if (!file.exists() || !file.isFile()) {
+            throw new IOException("versionManager.error.fileNotFound:" + source);
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return readVersions(reader, null);
+        } catch (IllegalStateException | JsonParseException e) {
+            throw new IOException("versionManager.error.invalidVersionsList:" + source, e);
         }
-
-        return versions.stream().distinct().collect(Collectors.toList());
     }
 
-    private void saveVersionsCache(List<Version> versions) {
-        try {
-            File cacheFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_CACHE_FILE));
+    private List<Version> fetchVersions(String source) throws IOException {
+        File cacheFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_CACHE_FILE));
+        CatalogMetadata cached = loadCatalogMetadata();
+        boolean conditional = cached != null && source.equals(cached.source) && cacheFile.isFile();
+
+        HttpGet request = new HttpGet(source);
+        if (conditional) {
+            if (cached.etag != null) {
+                request.setHeader("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                request.setHeader("If-Modified-Since", cached.lastModified);
+            }
+        }
+        try (CloseableHttpResponse response = HttpManager.getInstance().execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_NOT_MODIFIED && conditional) {
+                return null;
+            }
+            HttpEntity entity = response.getEntity();
+            if (status != HttpStatus.SC_OK || entity == null) {
+                throw new IOException("versionManager.error.downloadFailed:" + source + " (HTTP " + status + ")");
+            }
             File parent = cacheFile.getParentFile();
             if (parent != null && !parent.exists()) {
                 parent.mkdirs();
             }
-            try (Writer writer = new FileWriter(cacheFile)) {
-                Gson gson = new GsonBuilder().setPrettyPrinting().create();
-                gson.toJson(versions, writer);
+            File tempFile = new File(cacheFile.getPath() + ".tmp");
+            MessageDigest digest = ComponentsManager.newSha256();
+            List<Version> networkVersions;
+            try (Reader reader = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8);
+                 JsonWriter cacheWriter = new JsonWriter(new OutputStreamWriter(new DigestOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())), digest),
+                         StandardCharsets.UTF_8))) {
+                cacheWriter.setSerializeNulls(false);
+                networkVersions = readVersions(reader, cacheWriter);
+            } catch (IllegalStateException | JsonParseException e) {
+                Files.deleteIfExists(tempFile.toPath());
+                throw new IOException("versionManager.error.invalidVersionsList:" + source, e);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile.toPath());
+                throw e;
+            }
+
+            CatalogMetadata metadata = new CatalogMetadata();
+            metadata.source = source;
+            metadata.etag = headerValue(response.getFirstHeader("ETag"));
+            metadata.lastModified = headerValue(response.getFirstHeader("Last-Modified"));
+            metadata.sha256 = ComponentsManager.toHex(digest.digest());
+
+            boolean unchanged = conditional && metadata.sha256.equals(cached.sha256);
+            if (unchanged) {
+                Files.deleteIfExists(tempFile.toPath());
+            } else {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            saveCatalogMetadata(metadata);
+            return unchanged ? null : networkVersions;
+        }
+    }
+
+    private static List<Version> readVersions(Reader source, JsonWriter sink) throws IOException {
+        List<Version> versions = new ArrayList<>();
+        JsonReader reader = new JsonReader(source);
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return versions;
+        }
+        if (sink != null) {
+            sink.beginArray();
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Version version = VERSION_ADAPTER.read(reader);
+            if (version == null || version.getName() == null) {
+                continue;
+            }
+            versions.add(version);
+            if (sink != null) {
+                VERSION_ADAPTER.write(sink, version);
             }
+        }
+        reader.endArray();
+        if (sink != null) {
+            sink.endArray();
+        }
+        return versions;
+    }
+
+    private static String headerValue(Header header) {
+        return header != null ? header.getValue() : null;
+    }
+
+    private CatalogMetadata loadCatalogMetadata() {
+        File metadataFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_META_FILE));
+        if (!metadataFile.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, CatalogMetadata.class);
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private void saveCatalogMetadata(CatalogMetadata metadata) {
+        File metadataFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_META_FILE));
+        try (Writer writer = Files.newBufferedWriter(metadataFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(metadata, writer);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private List<Version> loadVersionsCache() {
-        File cacheFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_CACHE_FILE));
-        if (cacheFile.exists()) {
-            try (FileReader reader = new FileReader(cacheFile)) {
-                Gson gson = new Gson();
-                Type listType = new TypeToken<List<Version>>(){}.getType();
-                List<Version> cachedVersions = gson.fromJson(reader, listType);
-                if (cachedVersions != null) {
-                    return cachedVersions;
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return Collections.emptyList();
+        return readVersionsFile(new File(InstanceManager.getInstance().resolvePath(VERSIONS_LIST_CACHE_FILE)));
     }
 
     private List<Version> loadCustomVersions() {
-        File customVersionsFile = new File(InstanceManager.getInstance().resolvePath(CUSTOM_VERSIONS_FILE));
-        if (customVersionsFile.exists()) {
-            try (FileReader reader = new FileReader(customVersionsFile)) {
-                Gson gson = new Gson();
-                Type listType = new TypeToken<List<Version>>(){}.getType();
-                List<Version> customVersions = gson.fromJson(reader, listType);
-                if (customVersions != null) {
-                    return customVersions;
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+        return readVersionsFile(new File(InstanceManager.getInstance().resolvePath(CUSTOM_VERSIONS_FILE)));
+    }
+
+    private static List<Version> readVersionsFile(File file) {
+        if (file.isFile()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                return readVersions(reader, null);
+            } catch (IOException | IllegalStateException | JsonParseException e) {
+                System.err.println("Failed to read versions from " + file + ": " + e.getMessage());
             }
         }
         return Collections.emptyList();
@@ -154,43 +287,86 @@ public class VersionManager {
         File parent = targetFile.getParentFile();
         if (parent != null && !parent.exists()) parent.mkdirs();
         try (Writer writer = new FileWriter(targetFile)) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            gson.toJson(customVersions, writer);
+            PRETTY_GSON.toJson(customVersions, writer);
         } catch (IOException e) {
             throw e;
         }
     }
 
     public void updateInstalledVersions() {
-        Path versionsPath = Paths.get(InstanceManager.getInstance().resolvePath(VERSIONS_DIR));
-        if (Files.exists(versionsPath)) {
-            try (Stream<Path> paths = Files.list(versionsPath)) {
-                installedVersions = paths.filter(Files::isDirectory)
-                                         .map(path -> path.getFileName().toString())
-                                         .collect(Collectors.toSet());
-            } catch (IOException e) {
-                e.printStackTrace();
-                installedVersions = Collections.emptySet();
+        InstalledVersionsIndex.forActiveInstance();
+    }
+
+    public boolean isVersionInstalled(Version version) {
+        return InstalledVersionsIndex.forActiveInstance().isInstalled(version.getName());
+    }
+
+    public boolean isApkCached(Version version) {
+        return ApkStore.forActiveInstance().contains(version);
+    }
+
+    public long getVersionStamp(Version version) {
+        File versionDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), version.getName());
+        long manifestStamp = new File(versionDir, VersionManifest.FILE_NAME).lastModified();
+        long revisionStamp = new File(versionDir, REVISION_FILE).lastModified();
+        return Math.max(manifestStamp, revisionStamp);
+    }
+
+    public static void recordOverlays(String versionName, Collection<String> paths) throws IOException {
+        updateOverlays(versionName, paths, true);
+    }
+
+    public static void clearOverlays(String versionName, Collection<String> paths) throws IOException {
+        updateOverlays(versionName, paths, false);
+    }
+
+    private static void updateOverlays(String versionName, Collection<String> paths, boolean overlay)
+            throws IOException {
+        File versionDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), versionName);
+        File manifestFile = new File(versionDir, VersionManifest.FILE_NAME);
+        VersionManifest manifest = VersionManifest.load(manifestFile);
+        if (manifest != null) {
+            for (String path : paths) {
+                if (manifest.get(path) == null) {
+                    continue;
+                }
+                if (overlay) {
+                    BasicFileAttributes attrs = Files.readAttributes(new File(versionDir, path).toPath(),
+                            BasicFileAttributes.class);
+                    manifest.putOverlay(path, new VersionManifest.Entry(attrs.size(),
+                            attrs.lastModifiedTime().toMillis(), VersionManifest.NO_CRC));
+                } else {
+                    manifest.removeOverlay(path);
+                }
             }
-        } else {
-            installedVersions = Collections.emptySet();
+            manifest.save(manifestFile);
         }
+        markVersionModified(versionName);
     }
 
-    public boolean isVersionInstalled(Version version) {
-        if (installedVersions == null) {
-            updateInstalledVersions();
+    private static void markVersionModified(String versionName) {
+        File versionDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), versionName);
+        if (!versionDir.isDirectory()) {
+            return;
+        }
+        try {
+            Files.write(new File(versionDir, REVISION_FILE).toPath(),
+                    String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        return installedVersions.contains(version.getName());
     }
 
-    public boolean isApkCached(Version version) {
-        File versionsCacheDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_CACHE_DIR));
-        File apkFile = new File(versionsCacheDir, version.getName() + ".apk");
-        return apkFile.exists() && apkFile.length() > 0;
+    public File fetchApk(Version version, ProgressCallback callback) throws IOException {
+        File storedFile = ApkStore.forActiveInstance().find(version);
+        if (storedFile != null && storedFile.isFile()) {
+            return storedFile;
+        }
+        DownloadManager downloads = DownloadManager.forActiveInstance();
+        return downloads.await(downloads.enqueue(version, DownloadManager.PRIORITY_INTERACTIVE), callback);
     }
 
-    public File downloadVersion(Version version, ProgressCallback callback) throws IOException {
+    File downloadVersion(Version version, ProgressCallback callback, RateLimiter rateLimiter) throws IOException {
         File versionsCacheDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_CACHE_DIR));
         if (!versionsCacheDir.exists()) {
             if (!versionsCacheDir.mkdirs()) {
@@ -198,13 +374,18 @@ public class VersionManager {
             }
         }
 
+        ApkStore apkStore = ApkStore.forActiveInstance();
+        File storedFile = apkStore.find(version);
+        if (storedFile != null) {
+            if (storedFile.isFile()) {
+                return storedFile;
+            }
+            apkStore.forget(version.getName());
+        }
+
         String fileName = version.getName() + ".apk";
         File outputFile = new File(versionsCacheDir, fileName);
 
-        if (outputFile.exists() && outputFile.length() > 0) {
-            return outputFile;
-        }
-
         String downloadUrl = version.getUrl();
         if (downloadUrl == null || downloadUrl.isEmpty()) {
             throw new IOException("versionManager.error.missingUrl:" + version.getName());
@@ -213,94 +394,593 @@ public class VersionManager {
         if (downloadUrl.startsWith("file:")) {
              File sourceFile = new File(URI.create(downloadUrl));
              if(sourceFile.exists()) {
-                 FileUtils.copyFile(sourceFile, outputFile);
-                 return outputFile;
+                 File copyFile = new File(versionsCacheDir, fileName + ".tmp");
+                 String sha256 = copyHashed(sourceFile, copyFile);
+                 ApkStore.verify(version, copyFile, sha256);
+                 return apkStore.add(version.getName(), copyFile, sha256);
              } else {
                  throw new IOException("versionManager.error.customVersionNotFound:" + sourceFile.getAbsolutePath());
              }
         }
 
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(downloadUrl);
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    long totalSize = entity.getContentLength();
-                    try (java.io.InputStream inputStream = entity.getContent();
-                         OutputStream outputStream = new FileOutputStream(outputFile)) {
-                        byte[] buffer = new byte[4096];
-                        int bytesRead;
-                        long totalBytesRead = 0;
-
-                        while ((bytesRead = inputStream.read(buffer)) != -1) {
-                            outputStream.write(buffer, 0, bytesRead);
-                            totalBytesRead += bytesRead;
-                            if (callback != null && totalSize > 0) {
-                                callback.onProgress((double) totalBytesRead / totalSize);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
+        String sha256 = new SegmentedDownloader(HttpManager.getInstance(), DOWNLOAD_CONNECTIONS, rateLimiter)
+                .download(version.getUrls(), outputFile, callback);
+
         if (!outputFile.exists() || outputFile.length() == 0) {
             throw new IOException("versionManager.error.downloadFailed:" + outputFile.getAbsolutePath());
         }
-        
-        return outputFile;
+        ApkStore.verify(version, outputFile, sha256);
+
+        return apkStore.add(version.getName(), outputFile, sha256);
+    }
+
+    private static String copyHashed(File sourceFile, File outputFile) throws IOException {
+        MessageDigest digest = ComponentsManager.newSha256();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(sourceFile.toPath()), digest)) {
+            Files.copy(inputStream, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return ComponentsManager.toHex(digest.digest());
+    }
+
+    public void extractVersion(String versionName, File apkFile, ProgressCallback callback) throws IOException {
+        extractVersion(versionName, apkFile, null, callback);
     }
 
-    public void extractVersion(File apkFile, File gameDir) throws IOException {
+    public void extractVersion(String versionName, File apkFile, Set<String> requiredAbis, ProgressCallback callback)
+            throws IOException {
         if (!apkFile.exists()) {
             throw new IOException("versionManager.error.apkNotFound:" + apkFile.getAbsolutePath());
         }
 
+        File stagingDir = createStagingDir(versionName);
+        boolean success = false;
+        try {
+            Set<String> presentAbis = listAbis(apkFile);
+            Set<String> selectedAbis = selectAbis(presentAbis, requiredAbis);
+            Map<String, Long> crcs = new ConcurrentHashMap<>();
+            extractGameEntries(apkFile, stagingDir, selectedAbis, crcs, callback);
+
+            Set<String> skippedAbis = new TreeSet<>(presentAbis);
+            skippedAbis.removeAll(selectedAbis);
+            writeManifest(versionName, stagingDir, crcs, skippedAbis, null);
+            commitStagedVersion(versionName, stagingDir);
+            success = true;
+        } finally {
+            if (!success) {
+                FileUtils.deleteQuietly(stagingDir.getParentFile());
+            }
+        }
+    }
+
+    public void ensureAbis(Version version, Set<String> requiredAbis, ProgressCallback callback) throws IOException {
+        File versionDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), version.getName());
+        VersionManifest manifest = VersionManifest.load(new File(versionDir, VersionManifest.FILE_NAME));
+        if (manifest == null || manifest.getSkippedAbis().isEmpty()) {
+            return;
+        }
+        Set<String> missingAbis = new TreeSet<>(manifest.getSkippedAbis());
+        if (requiredAbis != null) {
+            missingAbis.retainAll(requiredAbis);
+        }
+        if (missingAbis.isEmpty()) {
+            return;
+        }
+
+        File apkFile = fetchApk(version, callback);
+        File stagingDir = createStagingDir(version.getName());
+        boolean success = false;
+        try {
+            linkTree(versionDir.toPath(), stagingDir.toPath());
+            Map<String, Long> crcs = new ConcurrentHashMap<>();
+            ParallelZipExtractor extractor = new ParallelZipExtractor();
+            extractor.setEntryListener((entry, extracted, total) -> crcs.put(entry.getName(), entry.getCrc()));
+            extractor.extract(apkFile, stagingDir, name -> isAbiLib(name, missingAbis), null);
+
+            Set<String> skippedAbis = new TreeSet<>(manifest.getSkippedAbis());
+            skippedAbis.removeAll(missingAbis);
+            writeManifest(version.getName(), stagingDir, crcs, skippedAbis, manifest);
+            commitStagedVersion(version.getName(), stagingDir);
+            success = true;
+        } finally {
+            if (!success) {
+                FileUtils.deleteQuietly(stagingDir.getParentFile());
+            }
+        }
+    }
+
+    public static Set<String> requiredAbis(String executableSource) {
+        if ("CUSTOM".equals(executableSource)) {
+            return null;
+        }
+        return Collections.singleton(hostAbi());
+    }
+
+    public static String hostAbi() {
+        String arch = System.getProperty("os.arch").toLowerCase();
+        return (arch.contains("arm") || arch.contains("aarch64")) ? "armeabi-v7a" : "x86";
+    }
+
+    private static void extractGameEntries(File apkFile, File targetDir, Set<String> selectedAbis,
+                                           Map<String, Long> crcs, ProgressCallback callback) throws IOException {
+        ParallelZipExtractor extractor = new ParallelZipExtractor();
+        extractor.setEntryListener((entry, extracted, total) -> crcs.put(entry.getName(), entry.getCrc()));
+        extractor.extract(apkFile, targetDir, name -> isGameEntry(name) && isSelectedLib(name, selectedAbis), callback);
+    }
+
+    private static Set<String> listAbis(File apkFile) throws IOException {
+        Set<String> abis = new TreeSet<>();
+        try (ZipFile zipFile = new ZipFile(apkFile)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                String abi = abiOf(entries.nextElement().getName());
+                if (abi != null) {
+                    abis.add(abi);
+                }
+            }
+        }
+        return abis;
+    }
+
+    private static Set<String> selectAbis(Set<String> presentAbis, Set<String> requiredAbis) {
+        if (requiredAbis == null) {
+            return presentAbis;
+        }
+        Set<String> selected = new TreeSet<>(presentAbis);
+        selected.retainAll(requiredAbis);
+        return selected.isEmpty() ? presentAbis : selected;
+    }
+
+    private static String abiOf(String entryName) {
+        if (!entryName.startsWith(LIB_PREFIX)) {
+            return null;
+        }
+        int slash = entryName.indexOf('/', LIB_PREFIX.length());
+        return slash < 0 ? null : entryName.substring(LIB_PREFIX.length(), slash);
+    }
+
+    private static boolean isAbiLib(String entryName, Set<String> abis) {
+        String abi = abiOf(entryName);
+        return abi != null && abis.contains(abi);
+    }
+
+    private static boolean isSelectedLib(String entryName, Set<String> selectedAbis) {
+        String abi = abiOf(entryName);
+        return abi == null || selectedAbis.contains(abi);
+    }
+
+    private void writeManifest(String versionName, File targetDir, Map<String, Long> crcs, Set<String> skippedAbis,
+                               VersionManifest previous) throws IOException {
+        File manifestFile = new File(targetDir, VersionManifest.FILE_NAME);
+        VersionManifest manifest = VersionManifest.scan(targetDir, GAME_SUBDIRS, previous);
+        manifest.setVersion(versionName);
+        manifest.setSkippedAbis(skippedAbis);
+        for (Map.Entry<String, VersionManifest.Entry> file : manifest.getFiles().entrySet()) {
+            Long crc = crcs.get(file.getKey());
+            if (crc != null && crc >= 0) {
+                VersionManifest.Entry entry = file.getValue();
+                manifest.put(file.getKey(), new VersionManifest.Entry(entry.getSize(), entry.getMtime(), crc));
+            }
+        }
+        new BlobStore(new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR))).dedupe(targetDir, manifest);
+        manifest.save(manifestFile);
+    }
+
+    public void removeVersion(String versionName) throws IOException {
         File versionsDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR));
-        if (!versionsDir.exists()) {
-            if (!versionsDir.mkdirs()) {
-                throw new IOException("versionManager.error.createVersionsDirFailed:" + versionsDir.getAbsolutePath());
+        File versionDir = new File(versionsDir, versionName);
+        if (versionName.startsWith(".") || !versionDir.isDirectory()) {
+            return;
+        }
+        FileUtils.deleteDirectory(versionDir);
+        InstalledVersionsIndex.forActiveInstance().refresh(versionName);
+        new BlobStore(versionsDir).collectGarbage();
+    }
+
+    private static boolean isGameEntry(String entryName) {
+        return entryName.startsWith("assets/") || entryName.startsWith("res/") || entryName.startsWith("lib/");
+    }
+
+    public boolean canStreamInstall(Version version) {
+        String url = version.getUrl();
+        if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) {
+            return false;
+        }
+        File apkFile = new File(InstanceManager.getInstance().resolvePath(VERSIONS_CACHE_DIR), version.getName() + ".apk");
+        return !ApkStore.forActiveInstance().contains(version) && !SegmentedDownloader.isIncomplete(apkFile);
+    }
+
+    File streamInstallVersion(Version version, Set<String> requiredAbis, ProgressCallback callback,
+                              RateLimiter rateLimiter) throws IOException {
+        File versionsCacheDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_CACHE_DIR));
+        if (!versionsCacheDir.exists()) {
+            if (!versionsCacheDir.mkdirs()) {
+                throw new IOException("versionManager.error.createCacheDirFailed:" + versionsCacheDir.getAbsolutePath());
+            }
+        }
+        MirrorHealth health = MirrorHealth.forActiveInstance();
+        List<String> mirrors = health.rank(version.getUrls());
+        String url = mirrors.get(0);
+        try {
+            return streamInstallFrom(url, mirrors.subList(1, mirrors.size()), version, requiredAbis, callback,
+                    rateLimiter);
+        } catch (MirrorFailedException e) {
+            if (Thread.currentThread().isInterrupted() || e.getCause() instanceof HttpManager.OfflineException) {
+                throw (IOException) e.getCause();
+            }
+            health.recordFailure(url);
+            System.err.println("Streaming install from " + url + " failed, falling back: " + e.getCause().getMessage());
+        }
+
+        File apkFile = downloadVersion(version, callback, rateLimiter);
+        extractVersion(version.getName(), apkFile, requiredAbis, null);
+        return apkFile;
+    }
+
+    private File streamInstallFrom(String url, List<String> alternatives, Version version, Set<String> requiredAbis,
+                                   ProgressCallback callback, RateLimiter rateLimiter) throws IOException {
+        boolean failover = !alternatives.isEmpty();
+        File versionsCacheDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_CACHE_DIR));
+        File streamFile = new File(versionsCacheDir, version.getName() + ".apk" + STREAM_SUFFIX);
+        File targetDir = createStagingDir(version.getName());
+
+        boolean success = false;
+        HttpGet request = new HttpGet(url);
+        if (failover) {
+            request.setConfig(SegmentedDownloader.FAILOVER_CONFIG);
+        }
+        long started = System.nanoTime();
+        CloseableHttpResponse response;
+        try {
+            response = HttpManager.getInstance().executeUncounted(request);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(targetDir.getParentFile());
+            throw new MirrorFailedException(e);
+        }
+        try {
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (status >= 400 || entity == null) {
+                throw new MirrorFailedException(new IOException(
+                        "versionManager.error.downloadFailed:" + url + " (HTTP " + status + ")"));
+            }
+
+            long totalSize = entity.getContentLength();
+            PipedInputStream pipeIn = new PipedInputStream(STREAM_PIPE_SIZE);
+            PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+            IOException[] downloadError = new IOException[1];
+            MessageDigest digest = ComponentsManager.newSha256();
+            Thread downloadThread = new Thread(() -> {
+                SegmentedDownloader.StallMonitor stallMonitor = failover
+                        ? new SegmentedDownloader.StallMonitor(url, alternatives) : null;
+                try (InputStream body = entity.getContent();
+                     OutputStream cacheOut = new FileOutputStream(streamFile);
+                     OutputStream pipe = pipeOut) {
+                    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                    boolean pipeOpen = true;
+                    long totalBytesRead = 0;
+                    int bytesRead;
+                    while ((bytesRead = body.read(buffer)) != -1) {
+                        long blockedSince = System.nanoTime();
+                        if (rateLimiter != null) {
+                            rateLimiter.acquire(bytesRead);
+                        }
+                        cacheOut.write(buffer, 0, bytesRead);
+                        digest.update(buffer, 0, bytesRead);
+                        if (pipeOpen) {
+                            try {
+                                pipe.write(buffer, 0, bytesRead);
+                            } catch (IOException e) {
+                                pipeOpen = false;
+                            }
+                        }
+                        totalBytesRead += bytesRead;
+                        if (callback != null && totalSize > 0) {
+                            callback.onProgress((double) totalBytesRead / totalSize);
+                        }
+                        if (stallMonitor != null) {
+                            stallMonitor.exclude(System.nanoTime() - blockedSince);
+                            stallMonitor.update(bytesRead);
+                        }
+                    }
+                } catch (IOException e) {
+                    downloadError[0] = e;
+                }
+            }, "stream-install");
+            downloadThread.setDaemon(true);
+            downloadThread.start();
+
+            boolean extracted;
+            Map<String, Long> crcs = new HashMap<>();
+            Set<String> seenAbis = new TreeSet<>();
+            try (ZipInputStream zipInputStream = new ZipInputStream(pipeIn)) {
+                extractEntries(zipInputStream, targetDir, crcs, requiredAbis, seenAbis);
+                extracted = true;
+            } catch (ZipException e) {
+                extracted = false;
+            } catch (IOException e) {
+                request.abort();
+                joinQuietly(downloadThread);
+                if (downloadError[0] != null && !Thread.currentThread().isInterrupted()) {
+                    throw new MirrorFailedException(downloadError[0]);
+                }
+                throw e;
+            } finally {
+                pipeIn.close();
+            }
+
+            try {
+                downloadThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                request.abort();
+                throw new IOException("versionManager.error.downloadInterrupted:" + url, e);
+            }
+            if (downloadError[0] != null) {
+                throw new MirrorFailedException(downloadError[0]);
+            }
+            if (totalSize > 0 && streamFile.length() != totalSize) {
+                throw new MirrorFailedException(
+                        new IOException("versionManager.error.downloadFailed:" + streamFile.getAbsolutePath()));
             }
+            MirrorHealth.forActiveInstance().recordTransfer(url, streamFile.length(), System.nanoTime() - started);
+
+            String sha256 = ComponentsManager.toHex(digest.digest());
+            ApkStore.verify(version, streamFile, sha256);
+            File storedFile = ApkStore.forActiveInstance().add(version.getName(), streamFile, sha256);
+            if (extracted) {
+                Set<String> selectedAbis = selectAbis(seenAbis, requiredAbis);
+                Set<String> missingAbis = new TreeSet<>();
+                if (requiredAbis != null) {
+                    missingAbis.addAll(selectedAbis);
+                    missingAbis.removeAll(requiredAbis);
+                }
+                if (!missingAbis.isEmpty()) {
+                    ParallelZipExtractor extractor = new ParallelZipExtractor();
+                    extractor.setEntryListener((entry, done, total) -> crcs.put(entry.getName(), entry.getCrc()));
+                    extractor.extract(storedFile, targetDir, name -> isAbiLib(name, missingAbis), null);
+                }
+                Set<String> skippedAbis = new TreeSet<>(seenAbis);
+                skippedAbis.removeAll(selectedAbis);
+                writeManifest(version.getName(), targetDir, crcs, skippedAbis, null);
+                commitStagedVersion(version.getName(), targetDir);
+            } else {
+                FileUtils.deleteQuietly(targetDir.getParentFile());
+                extractVersion(version.getName(), storedFile, requiredAbis, null);
+            }
+            success = true;
+            return storedFile;
+        } finally {
+            response.close();
+            if (!success) {
+                Files.deleteIfExists(streamFile.toPath());
+                FileUtils.deleteQuietly(targetDir.getParentFile());
+            }
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private File createStagingDir(String versionName) throws IOException {
+        File stagingRoot = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), STAGING_DIR);
+        if (!stagingRoot.exists()) {
+            if (!stagingRoot.mkdirs()) {
+                throw new IOException("versionManager.error.createVersionsDirFailed:" + stagingRoot.getAbsolutePath());
+            }
+        }
+
+        File holder = new File(stagingRoot, Long.toHexString(ThreadLocalRandom.current().nextLong()));
+        File targetDir = new File(holder, versionName);
+        if (!targetDir.mkdirs()) {
+            throw new IOException("versionManager.error.createTargetDirFailed:" + targetDir.getAbsolutePath());
+        }
+        return targetDir;
+    }
+
+    private void commitStagedVersion(String versionName, File stagingDir) throws IOException {
+        syncTree(stagingDir.toPath());
+        try (FileChannel channel = FileChannel.open(new File(stagingDir, INSTALLED_MARKER).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
         }
+        syncDirectory(stagingDir.toPath());
 
-        String versionName = apkFile.getName().replace(".apk", "");
+        File versionsDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR));
         File targetDir = new File(versionsDir, versionName);
-        if (!targetDir.exists()) {
-            if (!targetDir.mkdirs()) {
-                throw new IOException("versionManager.error.createTargetDirFailed:" + targetDir.getAbsolutePath());
+        File holder = stagingDir.getParentFile();
+        File retiredDir = null;
+        if (targetDir.exists()) {
+            retiredDir = new File(holder.getPath() + RETIRED_SUFFIX, versionName);
+            if (!retiredDir.getParentFile().mkdirs()) {
+                throw new IOException("versionManager.error.createTargetDirFailed:" + retiredDir.getAbsolutePath());
             }
+            moveAtomically(targetDir, retiredDir);
         }
+        try {
+            moveAtomically(stagingDir, targetDir);
+        } catch (IOException e) {
+            if (retiredDir != null) {
+                moveAtomically(retiredDir, targetDir);
+            }
+            throw e;
+        }
+        syncDirectory(versionsDir.toPath());
+        FileUtils.deleteQuietly(holder);
 
-        try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(apkFile.toPath()))) {
-            ZipEntry entry;
-            while ((entry = zipInputStream.getNextEntry()) != null) {
-                if (entry.isDirectory()) {
-                    continue;
+        InstalledVersionsIndex.forActiveInstance().refresh(versionName);
+        if (retiredDir != null) {
+            FileUtils.deleteQuietly(retiredDir.getParentFile());
+            new BlobStore(versionsDir).collectGarbage();
+        }
+    }
+
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath());
+        }
+    }
+
+    private static void linkTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String relative = source.relativize(file).toString();
+                // The marker and manifest are rewritten on commit and must not be shared with the live copy
+                if (relative.equals(INSTALLED_MARKER) || relative.equals(VersionManifest.FILE_NAME)) {
+                    return FileVisitResult.CONTINUE;
                 }
-                
-                String entryName = entry.getName();
-                
-                if (entryName.startsWith("assets/") || entryName.startsWith("res/") || entryName.startsWith("lib/")) {
-                    File newFile = new File(targetDir, entryName);
-                    
-                    File parentDir = newFile.getParentFile();
-                    if (parentDir != null && !parentDir.exists()) {
-                        if (!parentDir.mkdirs()) {
-                            continue;
-                        }
+                Path link = target.resolve(relative);
+                try {
+                    Files.createLink(link, file);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(file, link, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void syncTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.force(true);
                     }
-                    
-                    try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                        byte[] buffer = new byte[4096];
-                        int bytesRead;
-                        while ((bytesRead = zipInputStream.read(buffer)) != -1) {
-                            fos.write(buffer, 0, bytesRead);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                syncDirectory(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for sync on every platform; the file data is already durable
+        }
+    }
+
+    static boolean isInstallComplete(File versionDir) {
+        File marker = new File(versionDir, INSTALLED_MARKER);
+        if (marker.isFile()) {
+            return true;
+        }
+        boolean legacy = new File(versionDir, VersionManifest.FILE_NAME).isFile()
+                || (new File(versionDir, "lib").isDirectory() && new File(versionDir, "assets").isDirectory());
+        if (!legacy) {
+            return false;
+        }
+        try {
+            Files.write(marker.toPath(), String.valueOf(versionDir.lastModified()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    public void cleanupStagingAsync() {
+        File stagingRoot = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), STAGING_DIR);
+        if (!stagingRoot.isDirectory()) {
+            return;
+        }
+        Thread cleanupThread = new Thread(() -> cleanupStaging(stagingRoot), "staging-cleanup");
+        cleanupThread.setDaemon(true);
+        cleanupThread.setPriority(Thread.MIN_PRIORITY);
+        cleanupThread.start();
+    }
+
+    private static void cleanupStaging(File stagingRoot) {
+        File[] holders = stagingRoot.listFiles(File::isDirectory);
+        if (holders == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - STALE_STAGING_MS;
+        File versionsDir = stagingRoot.getParentFile();
+        for (File holder : holders) {
+            if (holder.lastModified() > cutoff) {
+                continue;
+            }
+            if (holder.getName().endsWith(RETIRED_SUFFIX)) {
+                File[] retired = holder.listFiles(File::isDirectory);
+                if (retired != null) {
+                    for (File versionDir : retired) {
+                        File targetDir = new File(versionsDir, versionDir.getName());
+                        if (!targetDir.exists()) {
+                            try {
+                                moveAtomically(versionDir, targetDir);
+                                InstalledVersionsIndex.forActiveInstance().refresh(versionDir.getName());
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
                         }
                     }
                 }
-                zipInputStream.closeEntry();
             }
+            FileUtils.deleteQuietly(holder);
+        }
+    }
+
+    private void extractEntries(ZipInputStream zipInputStream, File targetDir, Map<String, Long> crcs,
+                                Set<String> requiredAbis, Set<String> seenAbis) throws IOException {
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+
+            String entryName = entry.getName();
+            String abi = abiOf(entryName);
+            if (abi != null) {
+                seenAbis.add(abi);
+            }
+
+            if (isGameEntry(entryName) && (abi == null || requiredAbis == null || requiredAbis.contains(abi))) {
+                File newFile = new File(targetDir, entryName);
+
+                File parentDir = newFile.getParentFile();
+                if (parentDir != null && !parentDir.exists()) {
+                    if (!parentDir.mkdirs()) {
+                        continue;
+                    }
+                }
+
+                Files.deleteIfExists(newFile.toPath());
+                try (FileOutputStream fos = new FileOutputStream(newFile)) {
+                    byte[] buffer = new byte[4096];
+                    int bytesRead;
+                    while ((bytesRead = zipInputStream.read(buffer)) != -1) {
+                        fos.write(buffer, 0, bytesRead);
+                    }
+                }
+                crcs.put(entryName, entry.getCrc());
+            }
+            zipInputStream.closeEntry();
         }
     }
 
@@ -312,30 +992,21 @@ public class VersionManager {
             throw new IOException("versionManager.error.versionDirNotFound:" + currentVersionDir.getAbsolutePath());
         }
 
-        File assetsDir = new File(gameDir, "assets");
-        if (assetsDir.exists()) {
-            FileUtils.deleteDirectory(assetsDir);
-        }
-        File libDir = new File(gameDir, "lib");
-        if (libDir.exists()) {
-            FileUtils.deleteDirectory(libDir);
-        }
-        File resDir = new File(gameDir, "res");
-        if (resDir.exists()) {
-            FileUtils.deleteDirectory(resDir);
-        }
+        GameDirLinker.Mode mode = GameDirLinker.detectMode(currentVersionDir, gameDir);
+        VersionManifest extracted = VersionManifest.load(new File(currentVersionDir, VersionManifest.FILE_NAME));
+        VersionManifest source = VersionManifest.scan(currentVersionDir, GAME_SUBDIRS, extracted);
+        source.setVersion(version.getName());
 
-        File currentVersionAssets = new File(currentVersionDir, "assets");
-        if (currentVersionAssets.exists()) {
-            FileUtils.copyDirectory(currentVersionAssets, assetsDir);
-        }
-        File currentVersionLib = new File(currentVersionDir, "lib");
-        if (currentVersionLib.exists()) {
-            FileUtils.copyDirectory(currentVersionLib, libDir);
-        }
-        File currentVersionRes = new File(currentVersionDir, "res");
-        if (currentVersionRes.exists()) {
-            FileUtils.copyDirectory(currentVersionRes, resDir);
+        File stagedFile = new File(gameDir, STAGED_MANIFEST_FILE);
+        VersionManifest staged = VersionManifest.load(stagedFile);
+        Files.deleteIfExists(stagedFile.toPath());
+        GameDirLinker.sync(currentVersionDir, gameDir, GAME_SUBDIRS, source, staged, mode);
+        source.save(stagedFile);
+    }
+
+    private static class MirrorFailedException extends IOException {
+        MirrorFailedException(IOException cause) {
+            super(cause.getMessage(), cause);
         }
     }
-}
\ No newline at end of file
+}
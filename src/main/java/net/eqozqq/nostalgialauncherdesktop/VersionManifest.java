@@ -0,0 +1,181 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class VersionManifest {
+    public static final String FILE_NAME = "manifest.json";
+    public static final long NO_CRC = -1;
+
+    private static final Gson GSON = new Gson();
+
+    private String version;
+    private Map<String, Entry> files = new TreeMap<>();
+    private Set<String> skippedAbis = new TreeSet<>();
+    private Map<String, Entry> overlays = new TreeMap<>();
+
+    public static class Entry {
+        private long size;
+        private long mtime;
+        private long crc = NO_CRC;
+        private String sha256;
+
+        public Entry() {
+        }
+
+        public Entry(long size, long mtime, long crc) {
+            this(size, mtime, crc, null);
+        }
+
+        public Entry(long size, long mtime, long crc, String sha256) {
+            this.size = size;
+            this.mtime = mtime;
+            this.crc = crc;
+            this.sha256 = sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getMtime() {
+            return mtime;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public boolean hasCrc() {
+            return crc != NO_CRC;
+        }
+
+        public boolean sameStat(Entry other) {
+            return other != null && size == other.size && mtime == other.mtime;
+        }
+
+        public boolean sameContent(Entry other) {
+            return other != null && size == other.size && hasCrc() && crc == other.crc;
+        }
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public Set<String> getSkippedAbis() {
+        return skippedAbis != null ? skippedAbis : Collections.emptySet();
+    }
+
+    public void setSkippedAbis(Set<String> skippedAbis) {
+        this.skippedAbis = new TreeSet<>(skippedAbis);
+    }
+
+    public Map<String, Entry> getFiles() {
+        return files;
+    }
+
+    public Entry get(String path) {
+        return files.get(path);
+    }
+
+    public void put(String path, Entry entry) {
+        files.put(path, entry);
+    }
+
+    public Map<String, Entry> getOverlays() {
+        if (overlays == null) {
+            overlays = new TreeMap<>();
+        }
+        return overlays;
+    }
+
+    public Entry getOverlay(String path) {
+        return getOverlays().get(path);
+    }
+
+    public void putOverlay(String path, Entry entry) {
+        getOverlays().put(path, entry);
+    }
+
+    public void removeOverlay(String path) {
+        getOverlays().remove(path);
+    }
+
+    public static VersionManifest scan(File root, String[] subDirs, VersionManifest previous) throws IOException {
+        VersionManifest manifest = new VersionManifest();
+        if (previous != null) {
+            manifest.version = previous.version;
+            manifest.overlays = new TreeMap<>(previous.getOverlays());
+        }
+        Path rootPath = root.toPath();
+        for (String subDir : subDirs) {
+            Path start = rootPath.resolve(subDir);
+            if (!Files.isDirectory(start)) {
+                continue;
+            }
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String relative = rootPath.relativize(file).toString().replace(File.separatorChar, '/');
+                    Entry entry = new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), NO_CRC);
+                    Entry known = previous != null ? previous.get(relative) : null;
+                    if (known != null && known.sameStat(entry)) {
+                        entry.crc = known.crc;
+                        entry.sha256 = known.sha256;
+                    }
+                    manifest.files.put(relative, entry);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return manifest;
+    }
+
+    public static VersionManifest load(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            VersionManifest manifest = GSON.fromJson(reader, VersionManifest.class);
+            if (manifest == null || manifest.files == null) {
+                return null;
+            }
+            return manifest;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    public void save(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(this, writer);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
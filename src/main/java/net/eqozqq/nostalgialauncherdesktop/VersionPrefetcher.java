@@ -0,0 +1,80 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class VersionPrefetcher {
+    private static final long IDLE_DELAY_MS = 3000;
+    private static final long BYTES_PER_SECOND = 1024 * 1024;
+
+    private final VersionManager versionManager;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "version-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private ScheduledFuture<?> pending;
+    private String pendingName;
+    private DownloadManager.Job job;
+    private volatile boolean enabled = true;
+    private volatile boolean extract;
+
+    public VersionPrefetcher(VersionManager versionManager) {
+        this.versionManager = versionManager;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            cancelOthers(null);
+        }
+    }
+
+    public void setExtract(boolean extract) {
+        this.extract = extract;
+    }
+
+    public synchronized void schedule(Version version, Set<String> requiredAbis) {
+        if (!enabled || version == null || version.getName().equals(pendingName)) {
+            return;
+        }
+        cancelOthers(version);
+        pendingName = version.getName();
+        pending = executor.schedule(() -> prefetch(version, requiredAbis), IDLE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void cancelOthers(Version keep) {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+            pendingName = null;
+        }
+        if (job != null && (keep == null || !job.getVersion().getName().equals(keep.getName()))) {
+            if (job.getPriority() == DownloadManager.PRIORITY_BACKGROUND) {
+                DownloadManager.forActiveInstance().cancel(job);
+            }
+            job = null;
+        }
+    }
+
+    private void prefetch(Version version, Set<String> requiredAbis) {
+        if (HttpManager.getInstance().isOffline() || versionManager.isVersionInstalled(version)
+                || (!extract && versionManager.isApkCached(version))) {
+            return;
+        }
+        DownloadManager.Job queued = DownloadManager.forActiveInstance().enqueue(version,
+                DownloadManager.PRIORITY_BACKGROUND, extract, requiredAbis, BYTES_PER_SECOND);
+        synchronized (this) {
+            if (version.getName().equals(pendingName)) {
+                job = queued;
+            } else if (queued.getPriority() == DownloadManager.PRIORITY_BACKGROUND) {
+                DownloadManager.forActiveInstance().cancel(queued);
+            }
+        }
+    }
+}
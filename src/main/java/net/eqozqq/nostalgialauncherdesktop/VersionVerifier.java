@@ -0,0 +1,380 @@
+package net.eqozqq.nostalgialauncherdesktop;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class VersionVerifier {
+    private static final String VERSIONS_DIR = "versions";
+    private static final String HASH_CACHE_FILE = ".verify_cache.json";
+    private static final String REPAIR_SUFFIX = ".repair";
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    private static final Gson GSON = new Gson();
+
+    private final VersionManager versionManager;
+    private final int threads;
+
+    public static class Report {
+        private final String version;
+        private final List<String> damaged = new ArrayList<>();
+        private final List<String> overlays = new ArrayList<>();
+        private final List<String> repaired = new ArrayList<>();
+        private int checked;
+        private int hashed;
+        private long elapsedMs;
+
+        Report(String version) {
+            this.version = version;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public List<String> getDamaged() {
+            return damaged;
+        }
+
+        public List<String> getOverlays() {
+            return overlays;
+        }
+
+        public List<String> getRepaired() {
+            return repaired;
+        }
+
+        public List<String> getUnrepaired() {
+            List<String> unrepaired = new ArrayList<>(damaged);
+            unrepaired.removeAll(repaired);
+            return unrepaired;
+        }
+
+        public int getChecked() {
+            return checked;
+        }
+
+        public int getHashed() {
+            return hashed;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public boolean isHealthy() {
+            return getUnrepaired().isEmpty();
+        }
+    }
+
+    public VersionVerifier(VersionManager versionManager) {
+        this(versionManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    public VersionVerifier(VersionManager versionManager, int threads) {
+        this.versionManager = versionManager;
+        this.threads = Math.max(1, threads);
+    }
+
+    public Report verify(Version version, boolean repair, ProgressCallback callback) throws IOException {
+        return verify(version, repair, false, callback);
+    }
+
+    public Report verify(Version version, boolean repair, boolean full, ProgressCallback callback)
+            throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report(version.getName());
+        File versionDir = new File(InstanceManager.getInstance().resolvePath(VERSIONS_DIR), version.getName());
+        File manifestFile = new File(versionDir, VersionManifest.FILE_NAME);
+        VersionManifest manifest = VersionManifest.load(manifestFile);
+        if (manifest == null) {
+            throw new IOException("versionVerifier.error.noManifest:" + version.getName());
+        }
+
+        File cacheFile = new File(versionDir, HASH_CACHE_FILE);
+        Map<String, VersionManifest.Entry> cached = full ? Collections.emptyMap() : loadHashCache(cacheFile);
+        Map<String, VersionManifest.Entry> hashes = new ConcurrentHashMap<>();
+        Set<String> mismatched = ConcurrentHashMap.newKeySet();
+        Path root = versionDir.toPath();
+        int total = manifest.getFiles().size();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger hashed = new AtomicInteger();
+        // Only the pool's own threads touch these, so the buffers go away with the pool
+        ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "version-verify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<String, VersionManifest.Entry> file : manifest.getFiles().entrySet()) {
+                futures.add(executor.submit(() -> {
+                    String path = file.getKey();
+                    VersionManifest.Entry current = hash(root.resolve(path), cached.get(path), hashed,
+                            buffers.get());
+                    if (current == null) {
+                        mismatched.add(path);
+                    } else {
+                        hashes.put(path, current);
+                        if (!matches(file.getValue(), current)) {
+                            mismatched.add(path);
+                        }
+                    }
+                    if (callback != null && total > 0) {
+                        callback.onProgress((double) done.incrementAndGet() / total);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("versionVerifier.error.interrupted:" + version.getName(), e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String path : new TreeSet<>(mismatched)) {
+            // Texture packs record what they wrote; anything else that differs is damage
+            VersionManifest.Entry overlay = manifest.getOverlay(path);
+            if (overlay != null && overlay.sameStat(hashes.get(path))) {
+                report.overlays.add(path);
+            } else {
+                report.damaged.add(path);
+            }
+        }
+        report.checked = total;
+        report.hashed = hashed.get();
+
+        if (repair && !report.damaged.isEmpty()) {
+            repair(version, versionDir, manifest, report, hashes);
+        }
+        if (report.hashed > 0 || !report.repaired.isEmpty() || hashes.size() != cached.size()) {
+            saveHashCache(cacheFile, hashes);
+        }
+        report.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    private static boolean matches(VersionManifest.Entry expected, VersionManifest.Entry current) {
+        if (expected.hasCrc()) {
+            return expected.sameContent(current);
+        }
+        return expected.sameStat(current);
+    }
+
+    private static VersionManifest.Entry hash(Path file, VersionManifest.Entry cached, AtomicInteger hashed,
+                                              ByteBuffer buffer) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attrs.isRegularFile()) {
+            return null;
+        }
+        VersionManifest.Entry stat = new VersionManifest.Entry(attrs.size(), attrs.lastModifiedTime().toMillis(),
+                VersionManifest.NO_CRC);
+        if (cached != null && cached.hasCrc() && cached.sameStat(stat)) {
+            return cached;
+        }
+        hashed.incrementAndGet();
+        return new VersionManifest.Entry(stat.getSize(), stat.getMtime(), crcOf(file, buffer));
+    }
+
+    private static long crcOf(Path file, ByteBuffer buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private void repair(Version version, File versionDir, VersionManifest manifest, Report report,
+                        Map<String, VersionManifest.Entry> hashes) throws IOException {
+        File apkFile = ApkStore.forActiveInstance().find(version);
+        if (apkFile == null || !apkFile.isFile()) {
+            if (version.getUrl() == null || version.getUrl().isEmpty()) {
+                return;
+            }
+            apkFile = versionManager.fetchApk(version, null);
+        }
+
+        File versionsDir = versionDir.getParentFile();
+        BlobStore blobStore = new BlobStore(versionsDir);
+        try (ZipFile zipFile = new ZipFile(apkFile)) {
+            for (String path : report.damaged) {
+                ZipEntry entry = zipFile.getEntry(path);
+                if (entry == null) {
+                    continue;
+                }
+                Path target = versionDir.toPath().resolve(path);
+                Path temp = target.resolveSibling(target.getFileName() + REPAIR_SUFFIX);
+                Files.createDirectories(target.getParent());
+                CRC32 crc = new CRC32();
+                try (InputStream in = zipFile.getInputStream(entry);
+                     OutputStream out = new CheckedOutputStream(Files.newOutputStream(temp), crc)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int bytesRead;
+                    while ((bytesRead = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, bytesRead);
+                    }
+                }
+                if (entry.getCrc() != -1 && crc.getValue() != entry.getCrc()) {
+                    Files.deleteIfExists(temp);
+                    throw new IOException("versionVerifier.error.apkCorrupted:" + apkFile.getAbsolutePath());
+                }
+                VersionManifest.Entry expected = manifest.get(path);
+                if (Files.exists(target) && expected.getSha256() != null) {
+                    blobStore.evict(expected.getSha256(), target);
+                }
+                replace(temp, target);
+
+                BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+                long mtime = attrs.lastModifiedTime().toMillis();
+                manifest.put(path, new VersionManifest.Entry(attrs.size(), mtime, crc.getValue(),
+                        expected.getSha256()));
+                manifest.removeOverlay(path);
+                hashes.put(path, new VersionManifest.Entry(attrs.size(), mtime, crc.getValue()));
+                report.repaired.add(path);
+            }
+        }
+        if (!report.repaired.isEmpty()) {
+            manifest.save(new File(versionDir, VersionManifest.FILE_NAME));
+            InstalledVersionsIndex.forActiveInstance().refresh(version.getName());
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Map<String, VersionManifest.Entry> loadHashCache(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            Type mapType = new TypeToken<HashMap<String, VersionManifest.Entry>>(){}.getType();
+            Map<String, VersionManifest.Entry> loaded = GSON.fromJson(reader, mapType);
+            return loaded != null ? loaded : Collections.emptyMap();
+        } catch (IOException | JsonParseException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    private static void saveHashCache(File cacheFile, Map<String, VersionManifest.Entry> hashes) {
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                GSON.toJson(new HashMap<>(hashes), writer);
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static int runCommandLine(String[] args) {
+        Properties settings = new Properties();
+        File settingsFile = new File("launcher.properties");
+        if (settingsFile.isFile()) {
+            try (InputStream in = new FileInputStream(settingsFile)) {
+                settings.load(in);
+            } catch (IOException e) {
+                System.err.println("Failed to read launcher.properties: " + e.getMessage());
+            }
+        }
+        InstanceManager.getInstance().init(settings);
+
+        boolean repair = true;
+        boolean full = false;
+        List<String> names = new ArrayList<>();
+        for (String arg : args) {
+            if ("--check-only".equals(arg)) {
+                repair = false;
+            } else if ("--full".equals(arg)) {
+                full = true;
+            } else {
+                names.add(arg);
+            }
+        }
+        if (names.isEmpty()) {
+            names.addAll(new TreeSet<>(InstalledVersionsIndex.forActiveInstance().getInstalledVersions()));
+        }
+
+        VersionVerifier verifier = new VersionVerifier(new VersionManager());
+        int exitCode = 0;
+        for (String name : names) {
+            try {
+                Report report = verifier.verify(new Version(name, null), repair, full, null);
+                System.out.println(name + ": " + report.getChecked() + " files, " + report.getHashed()
+                        + " hashed, " + report.getElapsedMs() + " ms");
+                for (String path : report.getDamaged()) {
+                    System.out.println("  " + (report.getRepaired().contains(path) ? "repaired " : "damaged  ") + path);
+                }
+                for (String path : report.getOverlays()) {
+                    System.out.println("  modified " + path);
+                }
+                if (!report.isHealthy()) {
+                    exitCode = Math.max(exitCode, 1);
+                }
+            } catch (IOException e) {
+                System.err.println(name + ": " + e.getMessage());
+                exitCode = 2;
+            }
+        }
+        return exitCode;
+    }
+}
@@ -1,77 +1,198 @@
 package net.eqozqq.nostalgialauncherdesktop.WorldManager;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import org.spout.nbt.*;
+import org.spout.nbt.stream.NBTBufferReader;
+import org.spout.nbt.stream.NBTVisitor;
 
 public final class NBTConverter {
 
     public static Level readLevel(CompoundTag compoundTag) {
         Level level = new Level();
-        List<Tag> tags = compoundTag.getValue();
-        for (Tag tag : tags) {
-            String name = tag.getName();
+        level.setGameType(compoundTag.getInt("GameType", level.getGameType()));
+        level.setLastPlayed(compoundTag.getLong("LastPlayed", level.getLastPlayed()));
+        if (compoundTag.contains("LevelName")) {
+            level.setLevelName(compoundTag.getString("LevelName"));
+        }
+        CompoundTag player = compoundTag.getCompound("Player");
+        if (player != null) {
+            level.setPlayer(readPlayer(player));
+        }
+        level.setRandomSeed(compoundTag.getLong("RandomSeed", level.getRandomSeed()));
+        level.setSpawnX(compoundTag.getInt("SpawnX", level.getSpawnX()));
+        level.setSpawnY(compoundTag.getInt("SpawnY", level.getSpawnY()));
+        level.setSpawnZ(compoundTag.getInt("SpawnZ", level.getSpawnZ()));
+        level.setTime(compoundTag.getLong("Time", level.getTime()));
+        level.setDayCycleStopTime(compoundTag.getLong("dayCycleStopTime", level.getDayCycleStopTime()));
+        level.setSpawnMobs(compoundTag.getByte("spawnMobs", (byte) (level.getSpawnMobs() ? 1 : 0)) != 0);
+        return level;
+    }
+
+    public static Level readLevel(NBTBufferReader reader) throws IOException {
+        LevelVisitor visitor = new LevelVisitor(false);
+        reader.accept(visitor);
+        return visitor.level;
+    }
+
+    public static Level readLevelSummary(NBTBufferReader reader) throws IOException {
+        LevelVisitor visitor = new LevelVisitor(true);
+        reader.accept(visitor);
+        return visitor.level;
+    }
+
+    private static class LevelVisitor extends NBTVisitor {
+        private final Level level = new Level();
+        private final boolean summaryOnly;
+        private final Deque<String> path = new ArrayDeque<>();
+        private final float[] position = new float[3];
+        private int positionIndex;
+        private boolean hasName;
+        private boolean hasLastPlayed;
+
+        LevelVisitor(boolean summaryOnly) {
+            this.summaryOnly = summaryOnly;
+        }
+
+        @Override
+        public boolean enterCompound(String name) {
+            boolean wanted = path.isEmpty()
+                    || (!summaryOnly && path.size() == 1 && name.equals("Player"))
+                    || (!summaryOnly && path.size() == 2 && name.equals("abilities") && "Player".equals(path.peek()));
+            if (wanted) {
+                path.push(name);
+            }
+            return wanted;
+        }
+
+        @Override
+        public void exitCompound(String name) {
+            path.pop();
+        }
+
+        @Override
+        public boolean enterList(String name, int elementType, int length) {
+            if (summaryOnly || path.size() != 2 || !"Player".equals(path.peek()) || !name.equals("Pos")
+                    || elementType != NBTConstants.TYPE_FLOAT || length < 3) {
+                return false;
+            }
+            path.push(name);
+            positionIndex = 0;
+            return true;
+        }
+
+        @Override
+        public void exitList(String name) {
+            path.pop();
+            if (positionIndex >= 3) {
+                level.getPlayer().setLocation(new Vector3f(position[0], position[1], position[2]));
+            }
+        }
+
+        @Override
+        public void visitFloat(String name, float value) {
+            if (!"Pos".equals(path.peek())) {
+                return;
+            }
+            if (positionIndex < position.length) {
+                position[positionIndex] = value;
+            }
+            positionIndex++;
+        }
+
+        @Override
+        public void visitByte(String name, byte value) {
+            if (path.size() == 1 && name.equals("spawnMobs")) {
+                level.setSpawnMobs(value != 0);
+            } else if (path.size() == 3) {
+                PlayerAbilities abilities = level.getPlayer().getAbilities();
+                if (name.equals("flying")) {
+                    abilities.flying = value != 0;
+                } else if (name.equals("instabuild")) {
+                    abilities.instabuild = value != 0;
+                } else if (name.equals("invulnerable")) {
+                    abilities.invulnerable = value != 0;
+                } else if (name.equals("mayfly")) {
+                    abilities.mayFly = value != 0;
+                }
+            }
+        }
+
+        @Override
+        public void visitInt(String name, int value) {
+            if (path.size() != 1) {
+                return;
+            }
             if (name.equals("GameType")) {
-                level.setGameType(((IntTag) tag).getValue());
-            } else if (name.equals("LastPlayed")) {
-                level.setLastPlayed(((LongTag) tag).getValue());
-            } else if (name.equals("LevelName")) {
-                level.setLevelName(((StringTag) tag).getValue());
-            } else if (name.equals("Player")) {
-                level.setPlayer(readPlayer((CompoundTag) tag));
-            } else if (name.equals("RandomSeed")) {
-                level.setRandomSeed(((LongTag) tag).getValue());
+                level.setGameType(value);
             } else if (name.equals("SpawnX")) {
-                level.setSpawnX(((IntTag) tag).getValue());
+                level.setSpawnX(value);
             } else if (name.equals("SpawnY")) {
-                level.setSpawnY(((IntTag) tag).getValue());
+                level.setSpawnY(value);
             } else if (name.equals("SpawnZ")) {
-                level.setSpawnZ(((IntTag) tag).getValue());
+                level.setSpawnZ(value);
+            }
+        }
+
+        @Override
+        public void visitLong(String name, long value) {
+            if (path.size() != 1) {
+                return;
+            }
+            if (name.equals("LastPlayed")) {
+                level.setLastPlayed(value);
+                hasLastPlayed = true;
+            } else if (name.equals("RandomSeed")) {
+                level.setRandomSeed(value);
             } else if (name.equals("Time")) {
-                level.setTime(((LongTag) tag).getValue());
+                level.setTime(value);
             } else if (name.equals("dayCycleStopTime")) {
-                level.setDayCycleStopTime(((LongTag) tag).getValue());
-            } else if (name.equals("spawnMobs")) {
-                level.setSpawnMobs(((ByteTag) tag).getValue() != 0);
+                level.setDayCycleStopTime(value);
             }
         }
-        return level;
+
+        @Override
+        public void visitString(String name, String value) {
+            if (path.size() == 1 && name.equals("LevelName")) {
+                level.setLevelName(value);
+                hasName = true;
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return summaryOnly && hasName && hasLastPlayed;
+        }
     }
 
-    @SuppressWarnings("unchecked")
     public static Player readPlayer(CompoundTag compoundTag) {
         Player player = new Player();
-        List<Tag> tags = compoundTag.getValue();
-        for (Tag tag : tags) {
-            String name = tag.getName();
-            if (name.equals("Pos")) {
-                player.setLocation(readVector((ListTag<FloatTag>) tag));
-            } else if (name.equals("abilities")) {
-                readAbilities((CompoundTag) tag, player.getAbilities());
-            }
+        ListTag<FloatTag> pos = compoundTag.getList("Pos", FloatTag.class);
+        if (pos != null) {
+            player.setLocation(readVector(pos));
+        }
+        CompoundTag abilities = compoundTag.getCompound("abilities");
+        if (abilities != null) {
+            readAbilities(abilities, player.getAbilities());
         }
         return player;
     }
 
     public static void readAbilities(CompoundTag tag, PlayerAbilities abilities) {
-        List<Tag> tags = tag.getValue();
-        for (Tag t : tags) {
-            String n = t.getName();
-            if (!(t instanceof ByteTag)) continue;
-            boolean value = ((ByteTag) t).getValue() != 0;
-            if (n.equals("flying")) {
-                abilities.flying = value;
-            } else if (n.equals("instabuild")) {
-                abilities.instabuild = value;
-            } else if (n.equals("invulnerable")) {
-                abilities.invulnerable = value;
-            } else if (n.equals("mayfly")) {
-                abilities.mayFly = value;
-            }
-        }
+        abilities.flying = tag.getByte("flying", (byte) (abilities.flying ? 1 : 0)) != 0;
+        abilities.instabuild = tag.getByte("instabuild", (byte) (abilities.instabuild ? 1 : 0)) != 0;
+        abilities.invulnerable = tag.getByte("invulnerable", (byte) (abilities.invulnerable ? 1 : 0)) != 0;
+        abilities.mayFly = tag.getByte("mayfly", (byte) (abilities.mayFly ? 1 : 0)) != 0;
     }
 
     public static Vector3f readVector(ListTag<FloatTag> tag) {
+        if (tag instanceof FloatListTag) {
+            FloatListTag floats = (FloatListTag) tag;
+            return new Vector3f(floats.getFloat(0), floats.getFloat(1), floats.getFloat(2));
+        }
         List<FloatTag> tags = tag.getValue();
         return new Vector3f(tags.get(0).getValue(), tags.get(1).getValue(), tags.get(2).getValue());
     }
@@ -111,10 +232,6 @@ public final class NBTConverter {
     }
     
     public static ListTag<FloatTag> writeVector(Vector3f vector, String tagName) {
-		List<FloatTag> tags = new ArrayList<FloatTag>(3);
-		tags.add(new FloatTag("", vector.getX()));
-		tags.add(new FloatTag("", vector.getY()));
-		tags.add(new FloatTag("", vector.getZ()));
-		return new ListTag<FloatTag>(tagName, FloatTag.class, tags);
+		return new FloatListTag(tagName, new float[] { vector.getX(), vector.getY(), vector.getZ() });
 	}
 }
\ No newline at end of file
@@ -6,18 +6,21 @@ import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import net.eqozqq.nostalgialauncherdesktop.LocaleManager;
@@ -25,12 +28,13 @@ import net.eqozqq.nostalgialauncherdesktop.StyledDialog;
 import net.eqozqq.nostalgialauncherdesktop.Instances.InstanceManager;
 import org.apache.commons.io.FileUtils;
 import org.spout.nbt.CompoundTag;
-import org.spout.nbt.stream.NBTInputStream;
+import org.spout.nbt.stream.NBTBufferReader;
 import org.spout.nbt.stream.NBTOutputStream;
 
 public class WorldsManagerPanel extends JPanel {
     private static final String WORLDS_PATH = "game/storage/games/com.mojang/minecraftWorlds/";
     private static final String BACKUPS_PATH = "backups/";
+    private static final int LEVEL_DAT_HEADER = 8;
 
     private final LocaleManager localeManager;
     private final boolean isDark;
@@ -39,6 +43,8 @@ public class WorldsManagerPanel extends JPanel {
     private JPanel infoPanel;
     private Level currentLevel;
     private File currentWorldFolder;
+    private final Map<File, Level> worldSummaries = new HashMap<>();
+    private SwingWorker<Void, Map.Entry<File, Level>> summaryWorker;
 
     private JLabel lastPlayedLabel;
     private JTextField worldNameField;
@@ -325,7 +331,7 @@ public class WorldsManagerPanel extends JPanel {
             return;
         }
         try {
-            currentLevel = NBTConverter.readLevel(readLevelDat(levelDat));
+            currentLevel = NBTConverter.readLevel(NBTBufferReader.open(levelDat, LEVEL_DAT_HEADER, true));
             populateInfoPanel();
             infoPanel.setVisible(true);
         } catch (Exception e) {
@@ -377,6 +383,10 @@ public class WorldsManagerPanel extends JPanel {
             File levelDat = new File(currentWorldFolder, "level.dat");
             CompoundTag rootTag = NBTConverter.writeLevel(currentLevel);
             writeLevelDat(rootTag, levelDat);
+            Level summary = readSummary(currentWorldFolder);
+            if (summary != null)
+                worldSummaries.put(currentWorldFolder, summary);
+            worldsList.repaint();
 
             populateInfoPanel();
             StyledDialog.showMessage(this, localeManager.get("info.worldSaved"),
@@ -394,6 +404,8 @@ public class WorldsManagerPanel extends JPanel {
 
     public void loadWorlds() {
         listModel.clear();
+        worldSummaries.clear();
+        List<File> loadedFolders = new ArrayList<>();
         File worldsDir = new File(InstanceManager.getInstance().resolvePath(WORLDS_PATH));
         if (worldsDir.exists() && worldsDir.isDirectory()) {
             File[] worldFolders = worldsDir.listFiles(File::isDirectory);
@@ -401,11 +413,54 @@ public class WorldsManagerPanel extends JPanel {
                 for (File worldFolder : worldFolders) {
                     if (!worldFolder.getName().equals("_LevelCache")) {
                         listModel.addElement(worldFolder);
+                        loadedFolders.add(worldFolder);
                     }
                 }
             }
         }
         infoPanel.setVisible(false);
+        loadSummaries(loadedFolders);
+    }
+
+    private void loadSummaries(List<File> worldFolders) {
+        if (summaryWorker != null)
+            summaryWorker.cancel(false);
+        summaryWorker = new SwingWorker<Void, Map.Entry<File, Level>>() {
+            @Override
+            protected Void doInBackground() {
+                for (File worldFolder : worldFolders) {
+                    if (isCancelled())
+                        break;
+                    Level summary = readSummary(worldFolder);
+                    if (summary != null)
+                        publish(new AbstractMap.SimpleEntry<>(worldFolder, summary));
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<Map.Entry<File, Level>> summaries) {
+                if (summaryWorker != this)
+                    return;
+                for (Map.Entry<File, Level> summary : summaries)
+                    worldSummaries.put(summary.getKey(), summary.getValue());
+                worldsList.repaint();
+            }
+        };
+        summaryWorker.execute();
+    }
+
+    private static Level readSummary(File worldFolder) {
+        File levelDat = new File(worldFolder, "level.dat");
+        if (!levelDat.isFile()) {
+            return null;
+        }
+        try {
+            return NBTConverter.readLevelSummary(NBTBufferReader.open(levelDat, LEVEL_DAT_HEADER, true));
+        } catch (IOException e) {
+            System.err.println("Failed to read " + levelDat + ": " + e.getMessage());
+            return null;
+        }
     }
 
     private void showPopupMenu(MouseEvent e) {
@@ -448,16 +503,6 @@ public class WorldsManagerPanel extends JPanel {
         }
     }
 
-    private CompoundTag readLevelDat(File levelDatFile) throws IOException {
-        try (FileInputStream fis = new FileInputStream(levelDatFile);
-                BufferedInputStream is = new BufferedInputStream(fis)) {
-            is.skip(8);
-            try (NBTInputStream nbtStream = new NBTInputStream(is, false, true)) {
-                return (CompoundTag) nbtStream.readTag();
-            }
-        }
-    }
-
     private void writeLevelDat(CompoundTag data, File levelDatFile) throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         try (NBTOutputStream nbtOut = new NBTOutputStream(bos, false, true)) {
@@ -553,7 +598,17 @@ public class WorldsManagerPanel extends JPanel {
             super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
             setOpaque(isSelected);
             if (value instanceof File) {
-                setText(((File) value).getName());
+                File folder = (File) value;
+                Level summary = worldSummaries.get(folder);
+                String levelName = summary != null ? summary.getLevelName() : null;
+                if (levelName != null && !levelName.isEmpty() && !levelName.equals(folder.getName())) {
+                    setText(levelName + " (" + folder.getName() + ")");
+                } else {
+                    setText(folder.getName());
+                }
+                setToolTipText(summary != null && summary.getLastPlayed() > 0
+                        ? DateFormat.getDateTimeInstance().format(new Date(summary.getLastPlayed() * 1000))
+                        : null);
                 setIcon(UIManager.getIcon("FileView.directoryIcon"));
             }
             if (isSelected) {
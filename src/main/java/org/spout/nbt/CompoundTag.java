@@ -27,19 +27,34 @@ package org.spout.nbt;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * The {@code TAG_Compound} tag.
+ * <p />
+ * Children keep their insertion order. Lookups by name scan small compounds
+ * directly and build a name index for larger ones on first use, so the list
+ * passed to the constructor must not be modified afterwards.
  * @author Graham Edgecombe
  */
 public final class CompoundTag extends Tag {
+	/**
+	 * Compounds with more children than this are looked up through an index.
+	 */
+	private static final int INDEX_THRESHOLD = 8;
+
 	/**
 	 * The value.
 	 */
 	private final List<Tag> value;
 
+	/**
+	 * The name index, built on the first lookup in a large compound.
+	 */
+	private volatile Map<String, Tag> index;
+
 	/**
 	 * Creates the tag.
 	 * @param name The name.
@@ -55,6 +70,151 @@ public final class CompoundTag extends Tag {
 		return value;
 	}
 
+	/**
+	 * Gets the first child with the given name.
+	 * @param name The name.
+	 * @return The child, or {@code null} if there is none.
+	 */
+	public Tag get(String name) {
+		if (value.size() <= INDEX_THRESHOLD) {
+			for (Tag tag : value) {
+				if (tag.getName().equals(name)) {
+					return tag;
+				}
+			}
+			return null;
+		}
+		Map<String, Tag> index = this.index;
+		if (index == null) {
+			index = new HashMap<String, Tag>(value.size() * 4 / 3 + 1);
+			for (Tag tag : value) {
+				if (!index.containsKey(tag.getName())) {
+					index.put(tag.getName(), tag);
+				}
+			}
+			this.index = index;
+		}
+		return index.get(name);
+	}
+
+	/**
+	 * Gets the first child with the given name if it has the given type.
+	 * @param name The name.
+	 * @param type The tag class.
+	 * @return The child, or {@code null} if it is missing or of another type.
+	 */
+	public <T extends Tag> T get(String name, Class<T> type) {
+		Tag tag = get(name);
+		return type.isInstance(tag) ? type.cast(tag) : null;
+	}
+
+	/**
+	 * Checks whether a child with the given name exists.
+	 * @param name The name.
+	 * @return {@code true} if there is such a child.
+	 */
+	public boolean contains(String name) {
+		return get(name) != null;
+	}
+
+	public byte getByte(String name) {
+		return getByte(name, (byte) 0);
+	}
+
+	public byte getByte(String name, byte defaultValue) {
+		ByteTag tag = get(name, ByteTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	public short getShort(String name) {
+		return getShort(name, (short) 0);
+	}
+
+	public short getShort(String name, short defaultValue) {
+		ShortTag tag = get(name, ShortTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	public int getInt(String name) {
+		return getInt(name, 0);
+	}
+
+	public int getInt(String name, int defaultValue) {
+		IntTag tag = get(name, IntTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	public long getLong(String name) {
+		return getLong(name, 0L);
+	}
+
+	public long getLong(String name, long defaultValue) {
+		LongTag tag = get(name, LongTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	public float getFloat(String name) {
+		return getFloat(name, 0f);
+	}
+
+	public float getFloat(String name, float defaultValue) {
+		FloatTag tag = get(name, FloatTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	public double getDouble(String name) {
+		return getDouble(name, 0d);
+	}
+
+	public double getDouble(String name, double defaultValue) {
+		DoubleTag tag = get(name, DoubleTag.class);
+		return tag != null ? tag.getValue() : defaultValue;
+	}
+
+	/**
+	 * @param name The name.
+	 * @return the string value, or {@code null} if it is missing or not a string.
+	 */
+	public String getString(String name) {
+		StringTag tag = get(name, StringTag.class);
+		return tag != null ? tag.getValue() : null;
+	}
+
+	public byte[] getByteArray(String name) {
+		ByteArrayTag tag = get(name, ByteArrayTag.class);
+		return tag != null ? tag.getValue() : null;
+	}
+
+	public int[] getIntArray(String name) {
+		IntArrayTag tag = get(name, IntArrayTag.class);
+		return tag != null ? tag.getValue() : null;
+	}
+
+	public short[] getShortArray(String name) {
+		ShortArrayTag tag = get(name, ShortArrayTag.class);
+		return tag != null ? tag.getValue() : null;
+	}
+
+	/**
+	 * @param name The name.
+	 * @return the child compound, or {@code null} if it is missing or not a compound.
+	 */
+	public CompoundTag getCompound(String name) {
+		return get(name, CompoundTag.class);
+	}
+
+	/**
+	 * Gets a child list whose elements have the given type.
+	 * @param name The name.
+	 * @param elementType The class of the elements.
+	 * @return The list, or {@code null} if it is missing, not a list, or holds another element type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Tag> ListTag<T> getList(String name, Class<T> elementType) {
+		ListTag<?> tag = get(name, ListTag.class);
+		return tag != null && tag.getType() == elementType ? (ListTag<T>) tag : null;
+	}
+
 	@Override
 	public String toString() {
 		String name = getName();
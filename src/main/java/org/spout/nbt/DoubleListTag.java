@@ -0,0 +1,78 @@
+/*
+ * This file is part of SpoutNBT (http://www.spout.org/).
+ *
+ * SpoutNBT is licensed under the SpoutDev License Version 1.
+ *
+ * SpoutNBT is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the SpoutDev License Version 1.
+ *
+ * SpoutNBT is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the SpoutDev License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://www.spout.org/SpoutDevLicenseV1.txt> for the full license,
+ * including the MIT license.
+ */
+package org.spout.nbt;
+
+/**
+ * A {@code TAG_List} of {@code TAG_Double} elements stored as a {@code double[]}.
+ */
+public final class DoubleListTag extends PrimitiveListTag<DoubleTag> {
+	/**
+	 * The elements.
+	 */
+	private final double[] values;
+
+	/**
+	 * Creates the tag.
+	 * @param name The name.
+	 * @param values The elements; the array is used directly, not copied.
+	 */
+	public DoubleListTag(String name, double[] values) {
+		super(name, DoubleTag.class);
+		this.values = values;
+	}
+
+	/**
+	 * Gets an element.
+	 * @param index The index.
+	 * @return The element.
+	 */
+	public double getDouble(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Gets the backing array.
+	 * @return The elements.
+	 */
+	public double[] getArray() {
+		return values;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	protected DoubleTag createElement(int index) {
+		return new DoubleTag("", values[index]);
+	}
+
+	@Override
+	public DoubleListTag clone() {
+		return new DoubleListTag(getName(), values.clone());
+	}
+}
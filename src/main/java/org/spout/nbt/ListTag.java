@@ -31,9 +31,13 @@ import java.util.List;
 
 /**
  * The {@code TAG_List} tag.
+ * <p />
+ * Lists of floats, doubles, ints and shorts are read as {@link FloatListTag},
+ * {@link DoubleListTag}, {@link IntListTag} and {@link ShortListTag}, which
+ * keep their elements in a primitive array (see {@link PrimitiveListTag}).
  * @author Graham Edgecombe
  */
-public final class ListTag<T extends Tag> extends Tag {
+public class ListTag<T extends Tag> extends Tag {
 	/**
 	 * The type of entries within this list.
 	 */
@@ -56,6 +60,18 @@ public final class ListTag<T extends Tag> extends Tag {
 		this.value = Collections.unmodifiableList(value);
 	}
 
+	/**
+	 * Creates the tag for a subclass that stores its own elements and
+	 * overrides {@link #getValue()} and {@link #size()}.
+	 * @param name The name.
+	 * @param type The type of item in the list.
+	 */
+	protected ListTag(String name, Class<T> type) {
+		super(name);
+		this.type = type;
+		this.value = null;
+	}
+
 	/**
 	 * Gets the type of item in this list.
 	 * @return The type of item in this list.
@@ -69,6 +85,14 @@ public final class ListTag<T extends Tag> extends Tag {
 		return value;
 	}
 
+	/**
+	 * Gets the number of items in this list.
+	 * @return The number of items.
+	 */
+	public int size() {
+		return value.size();
+	}
+
 	@Override
 	public String toString() {
 		String name = getName();
@@ -78,8 +102,8 @@ public final class ListTag<T extends Tag> extends Tag {
 		}
 
 		StringBuilder bldr = new StringBuilder();
-		bldr.append("TAG_List").append(append).append(": ").append(value.size()).append(" entries of type ").append(NBTUtils.getTypeName(type)).append("\r\n{\r\n");
-		for (Tag t : value) {
+		bldr.append("TAG_List").append(append).append(": ").append(size()).append(" entries of type ").append(NBTUtils.getTypeName(type)).append("\r\n{\r\n");
+		for (Tag t : getValue()) {
 			bldr.append("   ").append(t.toString().replaceAll("\r\n", "\r\n   ")).append("\r\n");
 		}
 		bldr.append("}");
@@ -90,7 +114,7 @@ public final class ListTag<T extends Tag> extends Tag {
 	public ListTag<T> clone() {
 		List<T> newList = new ArrayList<T>();
 
-		for (T v : value) {
+		for (T v : getValue()) {
 			newList.add((T)v.clone());
 		}
 
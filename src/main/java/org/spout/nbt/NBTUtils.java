@@ -52,7 +52,7 @@ public final class NBTUtils {
 			return "TAG_Float";
 		} else if (clazz.equals(IntTag.class)) {
 			return "TAG_Int";
-		} else if (clazz.equals(ListTag.class)) {
+		} else if (ListTag.class.isAssignableFrom(clazz)) {
 			return "TAG_List";
 		} else if (clazz.equals(LongTag.class)) {
 			return "TAG_Long";
@@ -91,7 +91,7 @@ public final class NBTUtils {
 			return NBTConstants.TYPE_FLOAT;
 		} else if (clazz.equals(IntTag.class)) {
 			return NBTConstants.TYPE_INT;
-		} else if (clazz.equals(ListTag.class)) {
+		} else if (ListTag.class.isAssignableFrom(clazz)) {
 			return NBTConstants.TYPE_LIST;
 		} else if (clazz.equals(LongTag.class)) {
 			return NBTConstants.TYPE_LONG;
@@ -0,0 +1,80 @@
+/*
+ * This file is part of SpoutNBT (http://www.spout.org/).
+ *
+ * SpoutNBT is licensed under the SpoutDev License Version 1.
+ *
+ * SpoutNBT is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the SpoutDev License Version 1.
+ *
+ * SpoutNBT is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the SpoutDev License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://www.spout.org/SpoutDevLicenseV1.txt> for the full license,
+ * including the MIT license.
+ */
+package org.spout.nbt;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The base class for {@code TAG_List} tags whose numeric elements are kept in
+ * a primitive array.
+ * <p />
+ * Element tags are only created when {@link #getValue()} is used, so callers
+ * that read the numbers through the typed accessors of a subclass never
+ * allocate them.
+ */
+public abstract class PrimitiveListTag<T extends Tag> extends ListTag<T> {
+	/**
+	 * Creates the tag.
+	 * @param name The name.
+	 * @param type The type of item in the list.
+	 */
+	protected PrimitiveListTag(String name, Class<T> type) {
+		super(name, type);
+	}
+
+	/**
+	 * Creates an unnamed tag for an element.
+	 * @param index The index.
+	 * @return The tag.
+	 */
+	protected abstract T createElement(int index);
+
+	/**
+	 * Gets a read-only view of the elements as tags, created on access.
+	 * @return The view.
+	 */
+	@Override
+	public List<T> getValue() {
+		return new ElementView();
+	}
+
+	/**
+	 * Presents the elements as tags for callers of the generic list API.
+	 */
+	private final class ElementView extends AbstractList<T> implements RandomAccess {
+		@Override
+		public T get(int index) {
+			return createElement(index);
+		}
+
+		@Override
+		public int size() {
+			return PrimitiveListTag.this.size();
+		}
+	}
+}
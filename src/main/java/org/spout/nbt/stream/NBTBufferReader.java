@@ -0,0 +1,609 @@
+/*
+ * This file is part of SpoutNBT (http://www.spout.org/).
+ *
+ * SpoutNBT is licensed under the SpoutDev License Version 1.
+ *
+ * SpoutNBT is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the SpoutDev License Version 1.
+ *
+ * SpoutNBT is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the SpoutDev License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://www.spout.org/SpoutDevLicenseV1.txt> for the full license,
+ * including the MIT license.
+ */
+package org.spout.nbt.stream;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.spout.nbt.ByteArrayTag;
+import org.spout.nbt.ByteTag;
+import org.spout.nbt.CompoundTag;
+import org.spout.nbt.DoubleListTag;
+import org.spout.nbt.DoubleTag;
+import org.spout.nbt.EndTag;
+import org.spout.nbt.FloatListTag;
+import org.spout.nbt.FloatTag;
+import org.spout.nbt.IntArrayTag;
+import org.spout.nbt.IntListTag;
+import org.spout.nbt.IntTag;
+import org.spout.nbt.ListTag;
+import org.spout.nbt.LongTag;
+import org.spout.nbt.NBTConstants;
+import org.spout.nbt.NBTUtils;
+import org.spout.nbt.ShortArrayTag;
+import org.spout.nbt.ShortListTag;
+import org.spout.nbt.ShortTag;
+import org.spout.nbt.StringTag;
+import org.spout.nbt.Tag;
+
+/**
+ * This class reads uncompressed NBT directly from a {@link ByteBuffer} and
+ * produces the same object graph as {@link NBTInputStream}.
+ * <p />
+ * The byte order is fixed on the buffer once, so little-endian data (as used
+ * by Pocket Edition) is decoded natively instead of being swapped value by
+ * value, and primitive arrays are copied in bulk through buffer views.
+ * {@link #accept(NBTVisitor)} walks the same data without building a tree.
+ */
+public final class NBTBufferReader {
+	/**
+	 * Files at least this large are memory-mapped by {@link #open(File, long, boolean)};
+	 * smaller ones are read onto the heap so the file is not kept locked by a mapping.
+	 */
+	private static final long MAP_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * The buffer being read.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Whether this reader decodes numbers in little-endian format.
+	 */
+	private final boolean littleEndian;
+
+	/**
+	 * The tag names read so far, so repeated keys share one string.
+	 */
+	private final NBTNameCache names = new NBTNameCache();
+
+	/**
+	 * A reusable buffer for strings when the buffer has no backing array.
+	 */
+	private byte[] scratch;
+
+	/**
+	 * Creates a new {@link NBTBufferReader} over the remaining bytes of the
+	 * specified buffer. The buffer's own position, limit and order are left
+	 * untouched.
+	 * @param buffer The buffer, positioned at the first tag.
+	 * @param littleEndian Whether numbers are stored in little endian encoding.
+	 */
+	public NBTBufferReader(ByteBuffer buffer, boolean littleEndian) {
+		this.littleEndian = littleEndian;
+		this.buffer = buffer.slice().order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Creates a new {@link NBTBufferReader} for a file, starting at the given
+	 * offset. Large files are memory-mapped, small ones are read into memory.
+	 * @param file The file.
+	 * @param offset The number of header bytes to skip.
+	 * @param littleEndian Whether numbers are stored in little endian encoding.
+	 * @return The reader.
+	 * @throws java.io.IOException if an I/O error occurs.
+	 */
+	public static NBTBufferReader open(File file, long offset, boolean littleEndian) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = Math.max(0, channel.size() - offset);
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("NBT file too large: " + file);
+			}
+			if (size >= MAP_THRESHOLD) {
+				return new NBTBufferReader(channel.map(FileChannel.MapMode.READ_ONLY, offset, size), littleEndian);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, offset + buffer.position()) < 0) {
+					throw new EOFException();
+				}
+			}
+			buffer.flip();
+			return new NBTBufferReader(buffer, littleEndian);
+		}
+	}
+
+	/**
+	 * Reads an NBT {@link Tag} from the buffer.
+	 * @return The tag that was read.
+	 * @throws java.io.IOException if the data is truncated or malformed.
+	 */
+	public Tag readTag() throws IOException {
+		try {
+			return readTag(0);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			EOFException eof = new EOFException("Unexpected end of NBT data at offset " + buffer.position() + ".");
+			eof.initCause(e);
+			throw eof;
+		}
+	}
+
+	/**
+	 * Walks the next NBT tag, reporting its contents to the visitor instead of
+	 * building {@link Tag} objects. Subtrees the visitor declines are skipped
+	 * by seeking, and the walk ends early once the visitor is finished.
+	 * @param visitor The visitor.
+	 * @throws java.io.IOException if the data is truncated or malformed.
+	 */
+	public void accept(NBTVisitor visitor) throws IOException {
+		try {
+			int type = buffer.get() & 0xFF;
+			if (type == NBTConstants.TYPE_END) {
+				throw new IOException("TAG_End found without a TAG_Compound/TAG_List tag preceding it.");
+			}
+			visitPayload(type, readName(), visitor);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			EOFException eof = new EOFException("Unexpected end of NBT data at offset " + buffer.position() + ".");
+			eof.initCause(e);
+			throw eof;
+		}
+	}
+
+	/**
+	 * Reports the payload of a tag to the visitor.
+	 * @param type The type.
+	 * @param name The name.
+	 * @param visitor The visitor.
+	 * @return {@code false} once the visitor is finished.
+	 * @throws java.io.IOException if the data is malformed.
+	 */
+	private boolean visitPayload(int type, String name, NBTVisitor visitor) throws IOException {
+		int length;
+		switch (type) {
+		case NBTConstants.TYPE_BYTE:
+			visitor.visitByte(name, buffer.get());
+			break;
+
+		case NBTConstants.TYPE_SHORT:
+			visitor.visitShort(name, buffer.getShort());
+			break;
+
+		case NBTConstants.TYPE_INT:
+			visitor.visitInt(name, buffer.getInt());
+			break;
+
+		case NBTConstants.TYPE_LONG:
+			visitor.visitLong(name, buffer.getLong());
+			break;
+
+		case NBTConstants.TYPE_FLOAT:
+			visitor.visitFloat(name, buffer.getFloat());
+			break;
+
+		case NBTConstants.TYPE_DOUBLE:
+			visitor.visitDouble(name, buffer.getDouble());
+			break;
+
+		case NBTConstants.TYPE_STRING:
+			visitor.visitString(name, readString());
+			break;
+
+		case NBTConstants.TYPE_BYTE_ARRAY:
+			length = readLength(1);
+			if (visitor.enterArray(name, type, length)) {
+				byte[] bytes = new byte[length];
+				buffer.get(bytes);
+				visitor.visitByteArray(name, bytes);
+			} else {
+				skip(length);
+			}
+			break;
+
+		case NBTConstants.TYPE_INT_ARRAY:
+			length = readLength(4);
+			if (visitor.enterArray(name, type, length)) {
+				int[] ints = new int[length];
+				buffer.asIntBuffer().get(ints);
+				skip(length * 4);
+				visitor.visitIntArray(name, ints);
+			} else {
+				skip(length * 4);
+			}
+			break;
+
+		case NBTConstants.TYPE_SHORT_ARRAY:
+			length = readLength(2);
+			if (visitor.enterArray(name, type, length)) {
+				short[] shorts = new short[length];
+				buffer.asShortBuffer().get(shorts);
+				skip(length * 2);
+				visitor.visitShortArray(name, shorts);
+			} else {
+				skip(length * 2);
+			}
+			break;
+
+		case NBTConstants.TYPE_LIST:
+			int childType = buffer.get() & 0xFF;
+			length = Math.max(0, buffer.getInt());
+			if (!visitor.enterList(name, childType, length)) {
+				skipListElements(childType, length);
+				break;
+			}
+			for (int i = 0; i < length; i++) {
+				if (childType == NBTConstants.TYPE_END) {
+					throw new IOException("TAG_End not permitted in a list.");
+				}
+				if (!visitPayload(childType, "", visitor)) {
+					return false;
+				}
+			}
+			visitor.exitList(name);
+			break;
+
+		case NBTConstants.TYPE_COMPOUND:
+			if (!visitor.enterCompound(name)) {
+				skipPayload(type);
+				break;
+			}
+			while (true) {
+				int childTagType = buffer.get() & 0xFF;
+				if (childTagType == NBTConstants.TYPE_END) {
+					break;
+				}
+				if (!visitPayload(childTagType, readName(), visitor)) {
+					return false;
+				}
+			}
+			visitor.exitCompound(name);
+			break;
+
+		default:
+			throw new IOException("Invalid tag type: " + type + ".");
+		}
+		return !visitor.isFinished();
+	}
+
+	/**
+	 * Seeks past the payload of a tag without decoding it.
+	 * @param type The type.
+	 * @throws java.io.IOException if the data is malformed.
+	 */
+	private void skipPayload(int type) throws IOException {
+		switch (type) {
+		case NBTConstants.TYPE_BYTE_ARRAY:
+			skip(readLength(1));
+			break;
+
+		case NBTConstants.TYPE_INT_ARRAY:
+			skip(readLength(4) * 4);
+			break;
+
+		case NBTConstants.TYPE_SHORT_ARRAY:
+			skip(readLength(2) * 2);
+			break;
+
+		case NBTConstants.TYPE_STRING:
+			skip(buffer.getShort() & 0xFFFF);
+			break;
+
+		case NBTConstants.TYPE_LIST:
+			int childType = buffer.get() & 0xFF;
+			skipListElements(childType, Math.max(0, buffer.getInt()));
+			break;
+
+		case NBTConstants.TYPE_COMPOUND:
+			while (true) {
+				int childTagType = buffer.get() & 0xFF;
+				if (childTagType == NBTConstants.TYPE_END) {
+					break;
+				}
+				skip(buffer.getShort() & 0xFFFF);
+				skipPayload(childTagType);
+			}
+			break;
+
+		default:
+			int size = fixedSize(type);
+			if (size < 0) {
+				throw new IOException("Invalid tag type: " + type + ".");
+			}
+			skip(size);
+		}
+	}
+
+	/**
+	 * Seeks past the elements of a list, in a single jump when they have a fixed size.
+	 * @param childType The type of the elements.
+	 * @param length The number of elements.
+	 * @throws java.io.IOException if the data is malformed.
+	 */
+	private void skipListElements(int childType, int length) throws IOException {
+		int size = fixedSize(childType);
+		if (size > 0) {
+			if ((long) length * size > buffer.remaining()) {
+				throw new EOFException("List of " + length + " elements exceeds the remaining data.");
+			}
+			skip(length * size);
+		} else {
+			for (int i = 0; i < length; i++) {
+				skipPayload(childType);
+			}
+		}
+	}
+
+	/**
+	 * Gets the encoded size of a fixed-size payload.
+	 * @param type The type.
+	 * @return The size in bytes, or -1 if the payload has a variable size.
+	 */
+	private static int fixedSize(int type) {
+		switch (type) {
+		case NBTConstants.TYPE_BYTE:
+			return 1;
+		case NBTConstants.TYPE_SHORT:
+			return 2;
+		case NBTConstants.TYPE_INT:
+		case NBTConstants.TYPE_FLOAT:
+			return 4;
+		case NBTConstants.TYPE_LONG:
+		case NBTConstants.TYPE_DOUBLE:
+			return 8;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Advances the position without reading.
+	 * @param count The number of bytes to skip.
+	 */
+	private void skip(int count) {
+		buffer.position(buffer.position() + count);
+	}
+
+	/**
+	 * Reads an NBT {@link Tag} from the buffer.
+	 * @param depth The depth of this tag.
+	 * @return The tag that was read.
+	 * @throws java.io.IOException if the data is malformed.
+	 */
+	private Tag readTag(int depth) throws IOException {
+		int type = buffer.get() & 0xFF;
+
+		String name;
+		if (type != NBTConstants.TYPE_END) {
+			name = readName();
+		} else {
+			name = "";
+		}
+
+		return readTagPayload(type, name, depth);
+	}
+
+	/**
+	 * Reads a length-prefixed tag name through the name cache.
+	 * @return The name.
+	 */
+	private String readName() {
+		int length = buffer.getShort() & 0xFFFF;
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		int position = buffer.position();
+		String name;
+		if (buffer.hasArray()) {
+			name = names.decode(buffer.array(), buffer.arrayOffset() + position, length);
+		} else {
+			if (scratch == null || scratch.length < length) {
+				scratch = new byte[Math.max(length, 256)];
+			}
+			buffer.get(scratch, 0, length);
+			name = names.decode(scratch, 0, length);
+		}
+		buffer.position(position + length);
+		return name;
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string, decoding straight from the
+	 * backing array when there is one.
+	 * @return The string.
+	 */
+	private String readString() {
+		int length = buffer.getShort() & 0xFFFF;
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		if (buffer.hasArray()) {
+			int position = buffer.position();
+			String value = new String(buffer.array(), buffer.arrayOffset() + position, length, NBTConstants.CHARSET);
+			buffer.position(position + length);
+			return value;
+		}
+		if (scratch == null || scratch.length < length) {
+			scratch = new byte[Math.max(length, 256)];
+		}
+		buffer.get(scratch, 0, length);
+		return new String(scratch, 0, length, NBTConstants.CHARSET);
+	}
+
+	/**
+	 * Reads an array length and checks that the buffer can hold that many elements.
+	 * @param elementSize The size of one element in bytes.
+	 * @return The length.
+	 * @throws java.io.IOException if the length is negative or exceeds the remaining data.
+	 */
+	private int readLength(int elementSize) throws IOException {
+		return checkLength(buffer.getInt(), elementSize);
+	}
+
+	/**
+	 * Checks that the buffer can hold the given number of elements.
+	 * @param length The number of elements.
+	 * @param elementSize The size of one element in bytes.
+	 * @return The length.
+	 * @throws java.io.IOException if the length is negative or exceeds the remaining data.
+	 */
+	private int checkLength(int length, int elementSize) throws IOException {
+		if (length < 0) {
+			throw new IOException("Invalid array length: " + length + ".");
+		}
+		if ((long) length * elementSize > buffer.remaining()) {
+			throw new EOFException("Array of " + length + " elements exceeds the remaining data.");
+		}
+		return length;
+	}
+
+	/**
+	 * Reads the payload of a {@link Tag}, given the name and type.
+	 * @param type The type.
+	 * @param name The name.
+	 * @param depth The depth.
+	 * @return The tag.
+	 * @throws java.io.IOException if the data is malformed.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Tag readTagPayload(int type, String name, int depth) throws IOException {
+		switch (type) {
+		case NBTConstants.TYPE_END:
+			if (depth == 0) {
+				throw new IOException("TAG_End found without a TAG_Compound/TAG_List tag preceding it.");
+			} else {
+				return new EndTag();
+			}
+
+		case NBTConstants.TYPE_BYTE:
+			return new ByteTag(name, buffer.get());
+
+		case NBTConstants.TYPE_SHORT:
+			return new ShortTag(name, buffer.getShort());
+
+		case NBTConstants.TYPE_INT:
+			return new IntTag(name, buffer.getInt());
+
+		case NBTConstants.TYPE_LONG:
+			return new LongTag(name, buffer.getLong());
+
+		case NBTConstants.TYPE_FLOAT:
+			return new FloatTag(name, buffer.getFloat());
+
+		case NBTConstants.TYPE_DOUBLE:
+			return new DoubleTag(name, buffer.getDouble());
+
+		case NBTConstants.TYPE_BYTE_ARRAY:
+			byte[] bytes = new byte[readLength(1)];
+			buffer.get(bytes);
+			return new ByteArrayTag(name, bytes);
+
+		case NBTConstants.TYPE_STRING:
+			return new StringTag(name, readString());
+
+		case NBTConstants.TYPE_LIST:
+			int childType = buffer.get() & 0xFF;
+			int length = buffer.getInt();
+
+			if (length > 0) {
+				switch (childType) {
+				case NBTConstants.TYPE_FLOAT:
+					float[] floats = new float[checkLength(length, 4)];
+					buffer.asFloatBuffer().get(floats);
+					buffer.position(buffer.position() + length * 4);
+					return new FloatListTag(name, floats);
+				case NBTConstants.TYPE_DOUBLE:
+					double[] doubles = new double[checkLength(length, 8)];
+					buffer.asDoubleBuffer().get(doubles);
+					buffer.position(buffer.position() + length * 8);
+					return new DoubleListTag(name, doubles);
+				case NBTConstants.TYPE_INT:
+					int[] ints = new int[checkLength(length, 4)];
+					buffer.asIntBuffer().get(ints);
+					buffer.position(buffer.position() + length * 4);
+					return new IntListTag(name, ints);
+				case NBTConstants.TYPE_SHORT:
+					short[] shorts = new short[checkLength(length, 2)];
+					buffer.asShortBuffer().get(shorts);
+					buffer.position(buffer.position() + length * 2);
+					return new ShortListTag(name, shorts);
+				}
+			}
+
+			Class<? extends Tag> clazz = NBTUtils.getTypeClass(childType);
+			List<Tag> tagList = new ArrayList<Tag>(Math.max(0, Math.min(length, buffer.remaining())));
+			for (int i = 0; i < length; i++) {
+				Tag tag = readTagPayload(childType, "", depth + 1);
+				if (tag instanceof EndTag) {
+					throw new IOException("TAG_End not permitted in a list.");
+				} else if (!clazz.isInstance(tag)) {
+					throw new IOException("Mixed tag types within a list.");
+				}
+				tagList.add(tag);
+			}
+
+			return new ListTag(name, clazz, tagList);
+
+		case NBTConstants.TYPE_COMPOUND:
+			List<Tag> compoundTagList = new ArrayList<Tag>();
+			while (true) {
+				Tag tag = readTag(depth + 1);
+				if (tag instanceof EndTag) {
+					break;
+				} else {
+					compoundTagList.add(tag);
+				}
+			}
+
+			return new CompoundTag(name, compoundTagList);
+
+		case NBTConstants.TYPE_INT_ARRAY:
+			int[] ints = new int[readLength(4)];
+			buffer.asIntBuffer().get(ints);
+			buffer.position(buffer.position() + ints.length * 4);
+			return new IntArrayTag(name, ints);
+
+		case NBTConstants.TYPE_SHORT_ARRAY:
+			short[] shorts = new short[readLength(2)];
+			buffer.asShortBuffer().get(shorts);
+			buffer.position(buffer.position() + shorts.length * 2);
+			return new ShortArrayTag(name, shorts);
+
+		default:
+			throw new IOException("Invalid tag type: " + type + ".");
+		}
+	}
+
+	/**
+	 * @return the number of bytes consumed so far.
+	 */
+	public int position() {
+		return buffer.position();
+	}
+
+	/**
+	 * @return whether this reader decodes numbers in little-endian format.
+	 */
+	public boolean isLittleEndian() {
+		return littleEndian;
+	}
+}
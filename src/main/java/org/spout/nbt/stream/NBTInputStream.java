@@ -29,7 +29,14 @@ import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,16 +45,20 @@ import java.util.zip.GZIPInputStream;
 import org.spout.nbt.ByteArrayTag;
 import org.spout.nbt.ByteTag;
 import org.spout.nbt.CompoundTag;
+import org.spout.nbt.DoubleListTag;
 import org.spout.nbt.DoubleTag;
 import org.spout.nbt.EndTag;
+import org.spout.nbt.FloatListTag;
 import org.spout.nbt.FloatTag;
 import org.spout.nbt.IntArrayTag;
+import org.spout.nbt.IntListTag;
 import org.spout.nbt.IntTag;
 import org.spout.nbt.ListTag;
 import org.spout.nbt.LongTag;
 import org.spout.nbt.NBTConstants;
 import org.spout.nbt.NBTUtils;
 import org.spout.nbt.ShortArrayTag;
+import org.spout.nbt.ShortListTag;
 import org.spout.nbt.ShortTag;
 import org.spout.nbt.StringTag;
 import org.spout.nbt.Tag;
@@ -72,6 +83,16 @@ public final class NBTInputStream implements Closeable {
 	 */
 	private final boolean littleEndian;
 
+	/**
+	 * The tag names read so far, so repeated keys share one string.
+	 */
+	private final NBTNameCache names = new NBTNameCache();
+
+	/**
+	 * A reusable buffer for decoding names and strings.
+	 */
+	private byte[] scratch = new byte[256];
+
 	/**
 	 * Creates a new {@link NBTInputStream}, which will source its data
 	 * from the specified input stream. This assumes the stream is compressed.
@@ -130,10 +151,8 @@ public final class NBTInputStream implements Closeable {
 		String name;
 		if (type != NBTConstants.TYPE_END) {
 			int nameLength = is.readShort() & 0xFFFF;
-			if (littleEndian) nameLength = Short.reverseBytes((short) nameLength);
-			byte[] nameBytes = new byte[nameLength];
-			is.readFully(nameBytes);
-			name = new String(nameBytes, NBTConstants.CHARSET.name());
+			if (littleEndian) nameLength = Short.reverseBytes((short) nameLength) & 0xFFFF;
+			name = names.decode(readBytes(nameLength), 0, nameLength);
 		} else {
 			name = "";
 		}
@@ -141,6 +160,48 @@ public final class NBTInputStream implements Closeable {
 		return readTagPayload(type, name, depth);
 	}
 
+	/**
+	 * Reads bytes into the start of the scratch buffer, growing it if needed.
+	 * @param length The number of bytes.
+	 * @return The scratch buffer.
+	 * @throws java.io.IOException if an I/O error occurs.
+	 */
+	private byte[] readBytes(int length) throws IOException {
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		is.readFully(scratch, 0, length);
+		return scratch;
+	}
+
+	/**
+	 * Reads the elements of a list of fixed-size numbers in one go.
+	 * <p />
+	 * The data is read in chunks so that a corrupt length fails with an
+	 * {@link java.io.EOFException} instead of allocating the whole list up front.
+	 * @param length The number of elements.
+	 * @param elementSize The size of one element in bytes.
+	 * @return A buffer over the elements in the stream's byte order.
+	 * @throws java.io.IOException if an I/O error occurs.
+	 */
+	private ByteBuffer readListElements(int length, int elementSize) throws IOException {
+		long total = (long) length * elementSize;
+		if (total > Integer.MAX_VALUE) {
+			throw new IOException("List of " + length + " elements is too large.");
+		}
+		byte[] bytes = new byte[(int) Math.min(total, 65536)];
+		int read = 0;
+		while (read < total) {
+			if (read == bytes.length) {
+				bytes = Arrays.copyOf(bytes, (int) Math.min(total, (long) bytes.length * 2));
+			}
+			int count = bytes.length - read;
+			is.readFully(bytes, read, count);
+			read += count;
+		}
+		return ByteBuffer.wrap(bytes).order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+	}
+
 	/**
 	 * Reads the payload of a {@link Tag}, given the name and type.
 	 * @param type The type.
@@ -186,15 +247,48 @@ public final class NBTInputStream implements Closeable {
 			return new ByteArrayTag(name, bytes);
 
 		case NBTConstants.TYPE_STRING:
-			length = (littleEndian? Short.reverseBytes(is.readShort()) : is.readShort());
-			bytes = new byte[length];
-			is.readFully(bytes);
-			return new StringTag(name, new String(bytes, NBTConstants.CHARSET.name()));
+			length = (littleEndian? Short.reverseBytes(is.readShort()) : is.readShort()) & 0xFFFF;
+			return new StringTag(name, new String(readBytes(length), 0, length, NBTConstants.CHARSET));
 
 		case NBTConstants.TYPE_LIST:
 			int childType = is.readByte();
 			length = (littleEndian? Integer.reverseBytes(is.readInt()) : is.readInt());
 
+			switch (childType) {
+			case NBTConstants.TYPE_FLOAT:
+				if (length > 0) {
+					FloatBuffer elements = readListElements(length, 4).asFloatBuffer();
+					float[] floats = new float[elements.remaining()];
+					elements.get(floats);
+					return new FloatListTag(name, floats);
+				}
+				break;
+			case NBTConstants.TYPE_DOUBLE:
+				if (length > 0) {
+					DoubleBuffer elements = readListElements(length, 8).asDoubleBuffer();
+					double[] doubles = new double[elements.remaining()];
+					elements.get(doubles);
+					return new DoubleListTag(name, doubles);
+				}
+				break;
+			case NBTConstants.TYPE_INT:
+				if (length > 0) {
+					IntBuffer elements = readListElements(length, 4).asIntBuffer();
+					int[] ints = new int[elements.remaining()];
+					elements.get(ints);
+					return new IntListTag(name, ints);
+				}
+				break;
+			case NBTConstants.TYPE_SHORT:
+				if (length > 0) {
+					ShortBuffer elements = readListElements(length, 2).asShortBuffer();
+					short[] shorts = new short[elements.remaining()];
+					elements.get(shorts);
+					return new ShortListTag(name, shorts);
+				}
+				break;
+			}
+
 			Class<? extends Tag> clazz = NBTUtils.getTypeClass(childType);
 			List<Tag> tagList = new ArrayList<Tag>();
 			for (int i = 0; i < length; i++) {
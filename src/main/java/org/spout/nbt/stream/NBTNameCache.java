@@ -0,0 +1,131 @@
+/*
+ * This file is part of SpoutNBT (http://www.spout.org/).
+ *
+ * SpoutNBT is licensed under the SpoutDev License Version 1.
+ *
+ * SpoutNBT is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the SpoutDev License Version 1.
+ *
+ * SpoutNBT is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the SpoutDev License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://www.spout.org/SpoutDevLicenseV1.txt> for the full license,
+ * including the MIT license.
+ */
+package org.spout.nbt.stream;
+
+import java.util.Arrays;
+
+import org.spout.nbt.NBTConstants;
+
+/**
+ * A small fixed-size cache of tag names for the NBT readers and writers.
+ * <p />
+ * Entity and chunk data repeat the same few dozen keys many thousands of
+ * times. Readers look names up by their raw UTF-8 bytes so a repeated key
+ * decodes to the same {@link String} without allocating, and writers look up
+ * the encoded bytes of a name instead of encoding it again. The table is
+ * direct-mapped: a colliding name simply replaces the previous entry, so the
+ * memory used never grows past {@link #SIZE} entries.
+ */
+final class NBTNameCache {
+	/**
+	 * The number of slots; must be a power of two.
+	 */
+	private static final int SIZE = 512;
+
+	/**
+	 * Names longer than this many bytes are decoded or encoded without caching.
+	 */
+	private static final int MAX_NAME_LENGTH = 64;
+
+	/**
+	 * The encoded name in each slot.
+	 */
+	private final byte[][] bytes = new byte[SIZE][];
+
+	/**
+	 * The decoded name in each slot.
+	 */
+	private final String[] names = new String[SIZE];
+
+	/**
+	 * Gets the name for the given UTF-8 bytes, reusing a cached string when the
+	 * same bytes were seen before.
+	 * @param data The array holding the bytes.
+	 * @param offset The offset of the first byte.
+	 * @param length The number of bytes.
+	 * @return The name.
+	 */
+	public String decode(byte[] data, int offset, int length) {
+		if (length == 0) {
+			return "";
+		}
+		if (length > MAX_NAME_LENGTH) {
+			return new String(data, offset, length, NBTConstants.CHARSET);
+		}
+		int hash = 1;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			hash = 31 * hash + data[i];
+		}
+		int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+		byte[] cached = bytes[slot];
+		if (cached != null && cached.length == length && regionEquals(cached, data, offset)) {
+			return names[slot];
+		}
+		byte[] key = Arrays.copyOfRange(data, offset, offset + length);
+		String name = new String(key, NBTConstants.CHARSET);
+		bytes[slot] = key;
+		names[slot] = name;
+		return name;
+	}
+
+	/**
+	 * Gets the UTF-8 bytes of the given name, reusing the cached encoding when
+	 * the same name was written before. The returned array must not be modified.
+	 * @param name The name.
+	 * @return The encoded name.
+	 */
+	public byte[] encode(String name) {
+		if (name.length() > MAX_NAME_LENGTH) {
+			return name.getBytes(NBTConstants.CHARSET);
+		}
+		int hash = name.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+		String cached = names[slot];
+		if (cached != null && (cached == name || cached.equals(name))) {
+			return bytes[slot];
+		}
+		byte[] encoded = name.getBytes(NBTConstants.CHARSET);
+		names[slot] = name;
+		bytes[slot] = encoded;
+		return encoded;
+	}
+
+	/**
+	 * Checks whether a cached key matches a region of an array of the same length.
+	 * @param key The cached key.
+	 * @param data The array.
+	 * @param offset The start of the region.
+	 * @return {@code true} if every byte matches.
+	 */
+	private static boolean regionEquals(byte[] key, byte[] data, int offset) {
+		for (int i = 0; i < key.length; i++) {
+			if (key[i] != data[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -35,16 +35,20 @@ import java.util.zip.GZIPOutputStream;
 import org.spout.nbt.ByteArrayTag;
 import org.spout.nbt.ByteTag;
 import org.spout.nbt.CompoundTag;
+import org.spout.nbt.DoubleListTag;
 import org.spout.nbt.DoubleTag;
 import org.spout.nbt.EndTag;
+import org.spout.nbt.FloatListTag;
 import org.spout.nbt.FloatTag;
 import org.spout.nbt.IntArrayTag;
+import org.spout.nbt.IntListTag;
 import org.spout.nbt.IntTag;
 import org.spout.nbt.ListTag;
 import org.spout.nbt.LongTag;
 import org.spout.nbt.NBTConstants;
 import org.spout.nbt.NBTUtils;
 import org.spout.nbt.ShortArrayTag;
+import org.spout.nbt.ShortListTag;
 import org.spout.nbt.ShortTag;
 import org.spout.nbt.StringTag;
 import org.spout.nbt.Tag;
@@ -70,6 +74,11 @@ public final class NBTOutputStream implements Closeable {
 	 */
 	private final boolean littleEndian;
 
+	/**
+	 * The encoded tag names written so far.
+	 */
+	private final NBTNameCache names = new NBTNameCache();
+
 	/**
 	 * Creates a new {@link NBTOutputStream}, which will write data to the
 	 * specified underlying output stream. This assumes the output stream should
@@ -119,7 +128,7 @@ public final class NBTOutputStream implements Closeable {
 	public void writeTag(Tag tag) throws IOException {
 		int type = NBTUtils.getTypeCode(tag.getClass());
 		String name = tag.getName();
-		byte[] nameBytes = name.getBytes(NBTConstants.CHARSET.name());
+		byte[] nameBytes = names.encode(name);
 
 		os.writeByte(type);
 		os.writeShort(littleEndian? Short.reverseBytes((short) nameBytes.length) : nameBytes.length);
@@ -241,17 +250,58 @@ public final class NBTOutputStream implements Closeable {
 	 */
 	@SuppressWarnings("unchecked")
 	private void writeListTagPayload(ListTag<?> tag) throws IOException {
+		if (tag instanceof FloatListTag) {
+			float[] values = ((FloatListTag) tag).getArray();
+			writeListHeader(NBTConstants.TYPE_FLOAT, values.length);
+			for (float value : values) {
+				os.writeInt(littleEndian? Integer.reverseBytes(Float.floatToIntBits(value)) : Float.floatToIntBits(value));
+			}
+			return;
+		} else if (tag instanceof DoubleListTag) {
+			double[] values = ((DoubleListTag) tag).getArray();
+			writeListHeader(NBTConstants.TYPE_DOUBLE, values.length);
+			for (double value : values) {
+				os.writeLong(littleEndian? Long.reverseBytes(Double.doubleToLongBits(value)) : Double.doubleToLongBits(value));
+			}
+			return;
+		} else if (tag instanceof IntListTag) {
+			int[] values = ((IntListTag) tag).getArray();
+			writeListHeader(NBTConstants.TYPE_INT, values.length);
+			for (int value : values) {
+				os.writeInt(littleEndian? Integer.reverseBytes(value) : value);
+			}
+			return;
+		} else if (tag instanceof ShortListTag) {
+			short[] values = ((ShortListTag) tag).getArray();
+			writeListHeader(NBTConstants.TYPE_SHORT, values.length);
+			for (short value : values) {
+				os.writeShort(littleEndian? Short.reverseBytes(value) : value);
+			}
+			return;
+		}
+
 		Class<? extends Tag> clazz = tag.getType();
 		List<Tag> tags = (List<Tag>) tag.getValue();
 		int size = tags.size();
 
-		os.writeByte(NBTUtils.getTypeCode(clazz));
-		os.writeInt(littleEndian? Integer.reverseBytes(size) : size);
+		writeListHeader(NBTUtils.getTypeCode(clazz), size);
 		for (Tag tag1 : tags) {
 			writeTagPayload(tag1);
 		}
 	}
 
+	/**
+	 * Writes the element type and size of a {@code TAG_List} tag.
+	 * 
+	 * @param type The element type code.
+	 * @param size The number of elements.
+	 * @throws java.io.IOException if an I/O error occurs.
+	 */
+	private void writeListHeader(int type, int size) throws IOException {
+		os.writeByte(type);
+		os.writeInt(littleEndian? Integer.reverseBytes(size) : size);
+	}
+
 	/**
 	 * Writes a {@code TAG_String} tag.
 	 * 
@@ -259,7 +309,7 @@ public final class NBTOutputStream implements Closeable {
 	 * @throws java.io.IOException if an I/O error occurs.
 	 */
 	private void writeStringTagPayload(StringTag tag) throws IOException {
-		byte[] bytes = tag.getValue().getBytes(NBTConstants.CHARSET.name());
+		byte[] bytes = tag.getValue().getBytes(NBTConstants.CHARSET);
 		os.writeShort(littleEndian? Short.reverseBytes((short) bytes.length) : bytes.length);
 		os.write(bytes);
 	}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of SpoutNBT (http://www.spout.org/).
+ *
+ * SpoutNBT is licensed under the SpoutDev License Version 1.
+ *
+ * SpoutNBT is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * In addition, 180 days after any changes are published, you can use the
+ * software, incorporating those changes, under the terms of the MIT license,
+ * as described in the SpoutDev License Version 1.
+ *
+ * SpoutNBT is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License,
+ * the MIT license and the SpoutDev License Version 1 along with this program.
+ * If not, see <http://www.gnu.org/licenses/> for the GNU Lesser General Public
+ * License and see <http://www.spout.org/SpoutDevLicenseV1.txt> for the full license,
+ * including the MIT license.
+ */
+package org.spout.nbt.stream;
+
+/**
+ * Receives the contents of an NBT structure as a sequence of callbacks from
+ * {@link NBTBufferReader#accept(NBTVisitor)}, without building {@link org.spout.nbt.Tag}
+ * objects.
+ * <p />
+ * All methods do nothing by default, so subclasses only override the callbacks
+ * they care about. Returning {@code false} from one of the {@code enter} methods
+ * skips the whole subtree by seeking past it, and {@link #isFinished()} stops
+ * the walk as soon as everything needed has been seen. Elements of a list are
+ * reported with an empty name.
+ */
+public abstract class NBTVisitor {
+	/**
+	 * Called when a compound tag starts.
+	 * @param name The name of the compound.
+	 * @return {@code true} to visit its children, {@code false} to skip them.
+	 */
+	public boolean enterCompound(String name) {
+		return true;
+	}
+
+	/**
+	 * Called after the last child of a visited compound.
+	 * @param name The name of the compound.
+	 */
+	public void exitCompound(String name) {
+	}
+
+	/**
+	 * Called when a list tag starts.
+	 * @param name The name of the list.
+	 * @param elementType The type code of the elements.
+	 * @param length The number of elements.
+	 * @return {@code true} to visit its elements, {@code false} to skip them.
+	 */
+	public boolean enterList(String name, int elementType, int length) {
+		return true;
+	}
+
+	/**
+	 * Called after the last element of a visited list.
+	 * @param name The name of the list.
+	 */
+	public void exitList(String name) {
+	}
+
+	/**
+	 * Called when a byte, int or short array starts. Arrays are skipped unless
+	 * this returns {@code true}.
+	 * @param name The name of the array.
+	 * @param type The type code of the array tag.
+	 * @param length The number of elements.
+	 * @return {@code true} to decode the array and pass it to the matching visit method.
+	 */
+	public boolean enterArray(String name, int type, int length) {
+		return false;
+	}
+
+	/**
+	 * Called for a byte tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitByte(String name, byte value) {
+	}
+
+	/**
+	 * Called for a short tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitShort(String name, short value) {
+	}
+
+	/**
+	 * Called for an int tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitInt(String name, int value) {
+	}
+
+	/**
+	 * Called for a long tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitLong(String name, long value) {
+	}
+
+	/**
+	 * Called for a float tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitFloat(String name, float value) {
+	}
+
+	/**
+	 * Called for a double tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitDouble(String name, double value) {
+	}
+
+	/**
+	 * Called for a string tag.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitString(String name, String value) {
+	}
+
+	/**
+	 * Called for a byte array accepted by {@link #enterArray(String, int, int)}.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitByteArray(String name, byte[] value) {
+	}
+
+	/**
+	 * Called for an int array accepted by {@link #enterArray(String, int, int)}.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitIntArray(String name, int[] value) {
+	}
+
+	/**
+	 * Called for a short array accepted by {@link #enterArray(String, int, int)}.
+	 * @param name The name of the tag, empty inside a list.
+	 * @param value The value of the tag.
+	 */
+	public void visitShortArray(String name, short[] value) {
+	}
+
+	/**
+	 * Checked after every callback; once this returns {@code true} the walk
+	 * stops without reading the rest of the data.
+	 * @return whether the visitor has everything it needs.
+	 */
+	public boolean isFinished() {
+		return false;
+	}
+}